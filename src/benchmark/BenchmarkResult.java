@@ -0,0 +1,45 @@
+package benchmark;
+
+public class BenchmarkResult {
+    private final String name;
+    private final double opsPerSecond;
+    private final double nanosPerOp;
+    private final double nanosPerOpError;
+    private final double bytesPerOp;
+
+    // bytesPerOp is negative when the JVM cannot count allocations
+    public BenchmarkResult(String name, double opsPerSecond, double nanosPerOp, double nanosPerOpError, double bytesPerOp) {
+        this.name = name;
+        this.opsPerSecond = opsPerSecond;
+        this.nanosPerOp = nanosPerOp;
+        this.nanosPerOpError = nanosPerOpError;
+        this.bytesPerOp = bytesPerOp;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getOpsPerSecond() {
+        return opsPerSecond;
+    }
+
+    public double getNanosPerOp() {
+        return nanosPerOp;
+    }
+
+    public double getNanosPerOpError() {
+        return nanosPerOpError;
+    }
+
+    public double getBytesPerOp() {
+        return bytesPerOp;
+    }
+
+    @Override
+    public String toString() {
+        String bytes = bytesPerOp < 0 ? "n/a" : String.format("%.0f", bytesPerOp);
+        return String.format("%-28s %14.0f ops/s %12.1f +- %-8.1f ns/op %10s B/op",
+                name, opsPerSecond, nanosPerOp, nanosPerOpError, bytes);
+    }
+}
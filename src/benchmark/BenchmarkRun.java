@@ -0,0 +1,43 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BenchmarkRun {
+    private final String label;
+    private final long timestamp;
+    private final String machine;
+    private final List<Measurement> measurements;
+
+    public BenchmarkRun(String label, long timestamp, String machine, List<Measurement> measurements) {
+        this.label = label;
+        this.timestamp = timestamp;
+        this.machine = machine;
+        this.measurements = new ArrayList<>(measurements);
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getMachine() {
+        return machine;
+    }
+
+    public List<Measurement> getMeasurements() {
+        return measurements;
+    }
+
+    public Measurement find(String name) {
+        for (Measurement measurement : measurements) {
+            if (measurement.getName().equals(name)) {
+                return measurement;
+            }
+        }
+        return null;
+    }
+}
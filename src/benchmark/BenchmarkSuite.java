@@ -0,0 +1,142 @@
+package benchmark;
+
+import engine.EngineBoard;
+import model.Board;
+import model.Colors;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+// Records the perft, rules and persistence benchmarks as one run in the results file, and compares runs.
+// Usage: BenchmarkSuite record [label] [file]
+//        BenchmarkSuite compare [noisePercent] [baselineLabel] [candidateLabel] [file]
+//        BenchmarkSuite list [file]
+// compare defaults to the last two runs and exits with status 1 when any benchmark regressed.
+public class BenchmarkSuite {
+    public static final Path DEFAULT_FILE = Paths.get("benchmark-results.json");
+    private static final int REPEATS = 3;
+
+    public static void main(String[] args) throws Exception {
+        String command = args.length > 0 ? args[0] : "record";
+        switch (command) {
+            case "record" -> {
+                List<BenchmarkRun> runs = ResultsFile.read(file(args, 2));
+                String label = args.length > 1 ? args[1] : "run-" + (runs.size() + 1);
+                BenchmarkRun run = new BenchmarkRun(label, System.currentTimeMillis(), machine(), collect());
+                ResultsFile.append(file(args, 2), run);
+                for (Measurement measurement : run.getMeasurements()) {
+                    System.out.printf("%-36s %14.1f %s%n", measurement.getName(), measurement.getValue(), measurement.getUnit());
+                }
+                System.out.println("Recorded " + label + " in " + file(args, 2));
+            }
+            case "compare" -> {
+                List<BenchmarkRun> runs = ResultsFile.read(file(args, 4));
+                if (runs.size() < 2) {
+                    System.out.println("Need two recorded runs to compare, found " + runs.size());
+                    return;
+                }
+                double noise = args.length > 1 ? Double.parseDouble(args[1]) : Comparison.NOISE_PERCENT;
+                BenchmarkRun baseline = args.length > 2 ? find(runs, args[2]) : runs.get(runs.size() - 2);
+                BenchmarkRun candidate = args.length > 3 ? find(runs, args[3]) : runs.get(runs.size() - 1);
+                Comparison comparison = new Comparison(baseline, candidate, noise);
+                System.out.print(comparison);
+                if (comparison.hasRegressions()) {
+                    System.exit(1);
+                }
+            }
+            case "list" -> {
+                for (BenchmarkRun run : ResultsFile.read(file(args, 1))) {
+                    System.out.printf("%-20s %tF %<tT  %d results  %s%n",
+                            run.getLabel(), run.getTimestamp(), run.getMeasurements().size(), run.getMachine());
+                }
+            }
+            default -> System.out.println("Unknown command: " + command);
+        }
+    }
+
+    public static List<Measurement> collect() throws Exception {
+        List<Measurement> measurements = new ArrayList<>();
+        Board start = new Board();
+        start.initialize();
+        measurements.add(perft("perft engine depth 5", () -> EngineBoard.fromBoard(start, Colors.WHITE).perft(5)));
+        measurements.add(perft("perft board depth 3", () -> start.perft(3, Colors.WHITE)));
+
+        for (BenchmarkResult result : RulesBenchmark.run(RulesBenchmark.loadCorpus(RulesBenchmark.DEFAULT_CORPUS), new Harness())) {
+            double error = result.getOpsPerSecond() * result.getNanosPerOpError() / result.getNanosPerOp();
+            measurements.add(new Measurement(result.getName() + " throughput", result.getOpsPerSecond(), error, "ops/s", true));
+            if (result.getBytesPerOp() >= 0) {
+                measurements.add(new Measurement(result.getName() + " allocation", result.getBytesPerOp(), 0, "B/op", false));
+            }
+        }
+
+        Path directory = Files.createTempDirectory("benchmark-suite");
+        try {
+            PersistenceBenchmark.run(1_000, directory);
+            double[] save = new double[REPEATS];
+            double[] load = new double[REPEATS];
+            long bytesPerGame = 0;
+            for (int i = 0; i < REPEATS; i++) {
+                PersistenceResult persistence = PersistenceBenchmark.run(1_000, directory);
+                save[i] = persistence.getSaveMillis();
+                load[i] = persistence.getLoadMillis();
+                bytesPerGame = persistence.getBytesPerGame();
+            }
+            measurements.add(summarize("persistence 1k save", save, "ms", false));
+            measurements.add(summarize("persistence 1k load", load, "ms", false));
+            measurements.add(new Measurement("persistence 1k size", bytesPerGame, 0, "B/game", false));
+        } finally {
+            Files.deleteIfExists(directory);
+        }
+        return measurements;
+    }
+
+    // Nodes per second over a few repeats, after one warm-up run
+    private static Measurement perft(String name, PerftRun run) throws Exception {
+        run.count();
+        double[] rates = new double[REPEATS];
+        for (int i = 0; i < REPEATS; i++) {
+            long start = System.nanoTime();
+            long nodes = run.count();
+            rates[i] = nodes * 1e9 / Math.max(1, System.nanoTime() - start);
+        }
+        return summarize(name, rates, "nodes/s", true);
+    }
+
+    // Mean of the samples, with their standard deviation as the error
+    private static Measurement summarize(String name, double[] samples, String unit, boolean higherIsBetter) {
+        double mean = 0;
+        for (double sample : samples) {
+            mean += sample / samples.length;
+        }
+        double variance = 0;
+        for (double sample : samples) {
+            variance += (sample - mean) * (sample - mean) / Math.max(1, samples.length - 1);
+        }
+        return new Measurement(name, mean, Math.sqrt(variance), unit, higherIsBetter);
+    }
+
+    private interface PerftRun {
+        long count() throws Exception;
+    }
+
+    private static BenchmarkRun find(List<BenchmarkRun> runs, String label) {
+        for (int i = runs.size() - 1; i >= 0; i--) {
+            if (runs.get(i).getLabel().equals(label)) {
+                return runs.get(i);
+            }
+        }
+        throw new IllegalArgumentException("No run labelled " + label);
+    }
+
+    private static Path file(String[] args, int index) {
+        return args.length > index ? Paths.get(args[index]) : DEFAULT_FILE;
+    }
+
+    private static String machine() {
+        return System.getProperty("os.name") + " " + System.getProperty("os.arch") + ", "
+                + Runtime.getRuntime().availableProcessors() + " cpus, Java " + System.getProperty("java.version");
+    }
+}
@@ -0,0 +1,122 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Per-benchmark deltas between two runs. A change only counts once it exceeds the noise threshold,
+// widened to the spread the two runs measured themselves where they recorded one.
+public class Comparison {
+    public static final double NOISE_PERCENT = 5.0;
+
+    public enum Verdict {
+        REGRESSION, IMPROVEMENT, UNCHANGED, NEW, MISSING
+    }
+
+    private final BenchmarkRun baseline;
+    private final BenchmarkRun candidate;
+    private final List<Row> rows = new ArrayList<>();
+
+    public Comparison(BenchmarkRun baseline, BenchmarkRun candidate, double noisePercent) {
+        this.baseline = baseline;
+        this.candidate = candidate;
+        for (Measurement after : candidate.getMeasurements()) {
+            Measurement before = baseline.find(after.getName());
+            if (before == null) {
+                rows.add(new Row(after.getName(), after.getUnit(), Double.NaN, after.getValue(), 0, 0, Verdict.NEW));
+                continue;
+            }
+            double difference = after.getValue() - before.getValue();
+            // A zero baseline (an allocation-free benchmark) has no percentage; the change is judged on its size
+            double delta = before.getValue() != 0 ? 100 * difference / before.getValue() : difference == 0 ? 0 : Double.NaN;
+            double noise = Math.max(noisePercent, 100 * (relative(before) + relative(after)));
+            Verdict verdict = Verdict.UNCHANGED;
+            // Below one unit (a byte, a millisecond) a difference is rounding, however large in percent
+            if ((Double.isNaN(delta) || Math.abs(delta) > noise) && Math.abs(difference) >= 1) {
+                boolean better = after.isHigherBetter() ? difference > 0 : difference < 0;
+                verdict = better ? Verdict.IMPROVEMENT : Verdict.REGRESSION;
+            }
+            rows.add(new Row(after.getName(), after.getUnit(), before.getValue(), after.getValue(), delta, noise, verdict));
+        }
+        for (Measurement before : baseline.getMeasurements()) {
+            if (candidate.find(before.getName()) == null) {
+                rows.add(new Row(before.getName(), before.getUnit(), before.getValue(), Double.NaN, 0, 0, Verdict.MISSING));
+            }
+        }
+    }
+
+    private static double relative(Measurement measurement) {
+        return measurement.getValue() == 0 ? 0 : Math.abs(measurement.getError() / measurement.getValue());
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    public boolean hasRegressions() {
+        for (Row row : rows) {
+            if (row.verdict == Verdict.REGRESSION) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Baseline %s (%s) -> candidate %s (%s)%n",
+                baseline.getLabel(), baseline.getMachine(), candidate.getLabel(), candidate.getMachine()));
+        if (!baseline.getMachine().equals(candidate.getMachine())) {
+            report.append("Warning: the runs come from different machines").append(System.lineSeparator());
+        }
+        for (Row row : rows) {
+            report.append(row).append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+
+    public static class Row {
+        private final String name;
+        private final String unit;
+        private final double baseline;
+        private final double candidate;
+        private final double deltaPercent;
+        private final double noisePercent;
+        private final Verdict verdict;
+
+        Row(String name, String unit, double baseline, double candidate, double deltaPercent, double noisePercent,
+            Verdict verdict) {
+            this.name = name;
+            this.unit = unit;
+            this.baseline = baseline;
+            this.candidate = candidate;
+            this.deltaPercent = deltaPercent;
+            this.noisePercent = noisePercent;
+            this.verdict = verdict;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getDeltaPercent() {
+            return deltaPercent;
+        }
+
+        public Verdict getVerdict() {
+            return verdict;
+        }
+
+        @Override
+        public String toString() {
+            String delta = Double.isNaN(deltaPercent) ? "     n/a" : String.format("%+7.1f%%", deltaPercent);
+            return String.format("%-36s %14s -> %14s %-8s %s (noise %4.1f%%) %s",
+                    name, format(baseline), format(candidate), unit, delta, noisePercent, verdict);
+        }
+
+        // New and missing benchmarks have no value on one side
+        private static String format(double value) {
+            return Double.isNaN(value) ? "-" : String.format("%.1f", value);
+        }
+    }
+}
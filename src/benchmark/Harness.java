@@ -0,0 +1,90 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+// Times an operation the way a microbenchmark harness would: warm-up iterations for the JIT, then measured
+// iterations of a fixed length. Reports throughput, average time with its spread across iterations, and
+// bytes allocated per call as counted by the JVM for the benchmark thread.
+public class Harness {
+    public static final int WARMUP_ITERATIONS = 3;
+    public static final int ITERATIONS = 5;
+    public static final int ITERATION_MILLIS = 500;
+    private static final int BATCH = 16;
+
+    // Results are stored here so the JIT cannot drop the calls or keep their objects off the heap
+    private static Object sink;
+
+    private final int warmupIterations;
+    private final int iterations;
+    private final long iterationNanos;
+    private final com.sun.management.ThreadMXBean allocations;
+
+    public interface Operation {
+        Object run() throws Exception;
+    }
+
+    public Harness() {
+        this(WARMUP_ITERATIONS, ITERATIONS, ITERATION_MILLIS);
+    }
+
+    public Harness(int warmupIterations, int iterations, int iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.iterations = Math.max(1, iterations);
+        this.iterationNanos = iterationMillis * 1_000_000L;
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean counting && counting.isThreadAllocatedMemorySupported()) {
+            counting.setThreadAllocatedMemoryEnabled(true);
+            allocations = counting;
+        } else {
+            allocations = null;
+        }
+    }
+
+    public BenchmarkResult measure(String name, Operation operation) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(operation);
+        }
+        double[] nanosPerOp = new double[iterations];
+        long ops = 0;
+        long nanos = 0;
+        long bytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            long[] sample = iteration(operation);
+            ops += sample[0];
+            nanos += sample[1];
+            bytes += sample[2];
+            nanosPerOp[i] = (double) sample[1] / sample[0];
+        }
+
+        double mean = (double) nanos / ops;
+        double variance = 0;
+        for (double value : nanosPerOp) {
+            variance += (value - mean) * (value - mean);
+        }
+        double error = iterations > 1 ? Math.sqrt(variance / (iterations - 1)) : 0;
+        double bytesPerOp = allocations != null ? (double) bytes / ops : -1;
+        return new BenchmarkResult(name, ops * 1e9 / nanos, mean, error, bytesPerOp);
+    }
+
+    // Calls, elapsed nanoseconds and allocated bytes of one iteration
+    private long[] iteration(Operation operation) throws Exception {
+        long bytesBefore = allocatedBytes();
+        long start = System.nanoTime();
+        long deadline = start + iterationNanos;
+        long ops = 0;
+        long now;
+        do {
+            for (int i = 0; i < BATCH; i++) {
+                sink = operation.run();
+            }
+            ops += BATCH;
+            now = System.nanoTime();
+        } while (now < deadline);
+        return new long[] {ops, now - start, allocatedBytes() - bytesBefore};
+    }
+
+    private long allocatedBytes() {
+        return allocations != null ? allocations.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+}
@@ -0,0 +1,38 @@
+package benchmark;
+
+// One number from a benchmark run; error is the run's own spread in the same unit, 0 when unknown
+public class Measurement {
+    private final String name;
+    private final double value;
+    private final double error;
+    private final String unit;
+    private final boolean higherIsBetter;
+
+    public Measurement(String name, double value, double error, String unit, boolean higherIsBetter) {
+        this.name = name;
+        this.value = value;
+        this.error = error;
+        this.unit = unit;
+        this.higherIsBetter = higherIsBetter;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public double getError() {
+        return error;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public boolean isHigherBetter() {
+        return higherIsBetter;
+    }
+}
@@ -0,0 +1,220 @@
+package benchmark;
+
+import engine.EngineBoard;
+import engine.Moves;
+import exceptions.InvalidCommandException;
+import factory.PieceFactory;
+import model.Board;
+import model.ChessPair;
+import model.Colors;
+import model.Difficulty;
+import model.EvaluatorType;
+import model.Game;
+import model.GameBodyLoader;
+import model.Move;
+import model.Player;
+import model.ScoreLedger;
+import pieces.Pawn;
+import pieces.Piece;
+import util.JsonReaderUtil;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Saves and loads synthetic game stores through JsonReaderUtil and reports time, peak heap and file size.
+// Games are random legal games of realistic length, made from a pool of templates so that building a
+// million of them stays cheap: every game from a template shares its packed body, as an unopened game read
+// from a store would have, and unpacks its own board and moves only if used. The store format does not care
+// that bodies repeat.
+// Usage: PersistenceBenchmark [sizes, e.g. 1000,100000,1000000] [directory]
+// A size that runs out of memory or exceeds what the writer can produce is reported and skipped.
+public class PersistenceBenchmark {
+    public static final int[] SIZES = {1_000, 100_000, 1_000_000};
+    public static final int MIN_PLIES = 20;
+    public static final int MAX_PLIES = 120;
+    private static final int TEMPLATES = 256;
+    private static final long SEED = 20240601L;
+    private static final String[] PIECE_NAMES = {"PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING"};
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = SIZES;
+        if (args.length > 0) {
+            String[] parts = args[0].split(",");
+            sizes = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                sizes[i] = Integer.parseInt(parts[i].trim());
+            }
+        }
+        Path directory = args.length > 1 ? Paths.get(args[1]) : Files.createTempDirectory("chess-persistence");
+        Files.createDirectories(directory);
+        System.out.println("Max heap: " + (Runtime.getRuntime().maxMemory() >> 20) + " MB, files in " + directory);
+
+        for (int size : sizes) {
+            try {
+                System.out.println(run(size, directory));
+            } catch (OutOfMemoryError | IllegalStateException e) {
+                System.out.printf("%9d games: failed, %s%n", size, e.getMessage());
+            }
+        }
+    }
+
+    public static PersistenceResult run(int size, Path directory) throws Exception {
+        Path file = directory.resolve("games-" + size + ".json");
+        String stage = "generating";
+        Map<Integer, Game> games = null;
+        try {
+            games = syntheticStore(size, SEED);
+
+            stage = "saving";
+            long base = settledHeap();
+            long start = System.nanoTime();
+            JsonReaderUtil.writeGames(file, games);
+            long saveNanos = System.nanoTime() - start;
+            long savePeak = peakHeap() - base;
+            long fileBytes = Files.size(file);
+
+            stage = "loading";
+            games = null;
+            base = settledHeap();
+            start = System.nanoTime();
+            int loaded = JsonReaderUtil.readGamesAsMap(file).size();
+            long loadNanos = System.nanoTime() - start;
+            long loadPeak = peakHeap() - base;
+            if (loaded != size) {
+                throw new IllegalStateException("loaded " + loaded + " of " + size + " games");
+            }
+            return new PersistenceResult(size, saveNanos / 1_000_000, loadNanos / 1_000_000, savePeak, loadPeak, fileBytes);
+        } catch (OutOfMemoryError | NegativeArraySizeException e) {
+            throw new IllegalStateException("out of memory while " + stage, e);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Games with ids 1..count, each with its own players and scores over the packed body of one of the templates
+    public static Map<Integer, Game> syntheticStore(int count, long seed) throws InvalidCommandException {
+        Random random = new Random(seed);
+        List<Game> templates = new ArrayList<>();
+        List<GameBodyLoader> bodies = new ArrayList<>();
+        for (int i = 0; i < Math.min(count, TEMPLATES); i++) {
+            Game template = randomGame(random);
+            templates.add(template);
+            bodies.add(JsonReaderUtil.packBody(template.getBoard(), template.getMoves()));
+        }
+        Difficulty[] difficulties = Difficulty.values();
+        Map<Integer, Game> games = new LinkedHashMap<>();
+        for (int id = 1; id <= count; id++) {
+            int index = random.nextInt(templates.size());
+            Game template = templates.get(index);
+            Game game = new Game(id);
+            List<Player> players = new ArrayList<>();
+            players.add(new Player("player" + id % 1000 + "@example.com", Colors.WHITE));
+            players.add(new Player("computer", Colors.BLACK));
+            game.setPlayers(players);
+            game.setBodyLoader(bodies.get(index), template.getMoves().size());
+            ScoreLedger ledger = new ScoreLedger();
+            for (Colors color : Colors.values()) {
+                ledger.setPoints(color, template.getScoreLedger().getPoints(color));
+            }
+            game.restoreScores(ledger);
+            game.setCurrentPlayerIndex(template.getCurrentPlayerIndex());
+            game.setDifficulty(difficulties[random.nextInt(difficulties.length)]);
+            game.setEvaluatorType(EvaluatorType.CLASSICAL);
+            games.put(id, game);
+        }
+        return games;
+    }
+
+    // Random legal moves from the start position until the ply count is reached or no move is left
+    private static Game randomGame(Random random) throws InvalidCommandException {
+        Board start = new Board();
+        start.initialize();
+        EngineBoard board = EngineBoard.fromBoard(start, Colors.WHITE);
+
+        Game game = new Game();
+        ScoreLedger ledger = new ScoreLedger();
+        List<Move> moves = new ArrayList<>();
+        int plies = MIN_PLIES + random.nextInt(MAX_PLIES - MIN_PLIES + 1);
+        int[] buffer = new int[EngineBoard.MAX_MOVES];
+        int[] legal = new int[EngineBoard.MAX_MOVES];
+        for (int ply = 0; ply < plies; ply++) {
+            int count = board.generateMoves(buffer, 0, false);
+            int legalCount = 0;
+            for (int i = 0; i < count; i++) {
+                if (board.makeMove(buffer[i])) {
+                    legal[legalCount++] = buffer[i];
+                    board.unmakeMove(buffer[i]);
+                }
+            }
+            if (legalCount == 0) {
+                break;
+            }
+            int move = legal[random.nextInt(legalCount)];
+            Colors mover = EngineBoard.toColors(board.sideToMove());
+            Move played = Moves.toModel(move, mover);
+            int captured = board.pieceAt(Moves.to(move));
+            if (captured != EngineBoard.EMPTY) {
+                Piece piece = createPiece(captured, Moves.to(move));
+                played.setCapturedPiece(piece);
+                ledger.recordCapture(mover, piece);
+            }
+            moves.add(played);
+            board.makeMove(move);
+        }
+
+        Board finalBoard = new Board();
+        for (int sq = 0; sq < 64; sq++) {
+            if (board.pieceAt(sq) != EngineBoard.EMPTY) {
+                Piece piece = createPiece(board.pieceAt(sq), sq);
+                if (piece instanceof Pawn pawn) {
+                    int rank = sq >>> 3;
+                    pawn.setFirstMove(piece.getColor() == Colors.WHITE ? rank == 1 : rank == 6);
+                }
+                finalBoard.getPieces().add(new ChessPair<>(Moves.position(sq), piece));
+            }
+        }
+        game.setBoard(finalBoard);
+        game.setMoves(moves);
+        game.restoreScores(ledger);
+        game.setCurrentPlayerIndex(board.sideToMove() == EngineBoard.WHITE ? 0 : 1);
+        return game;
+    }
+
+    private static Piece createPiece(int piece, int sq) {
+        return PieceFactory.createPiece(PIECE_NAMES[EngineBoard.typeOf(piece)],
+                EngineBoard.toColors(EngineBoard.colorOf(piece)), Moves.position(sq));
+    }
+
+    // Heap in use once garbage is collected; also restarts the peak counters
+    private static long settledHeap() {
+        System.gc();
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                used += pool.getUsage().getUsed();
+                pool.resetPeakUsage();
+            }
+        }
+        return used;
+    }
+
+    // Sum of the per-pool peaks since the last reset; pools can peak at different moments, so this errs high
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,54 @@
+package benchmark;
+
+public class PersistenceResult {
+    private final int games;
+    private final long saveMillis;
+    private final long loadMillis;
+    private final long savePeakBytes;
+    private final long loadPeakBytes;
+    private final long fileBytes;
+
+    public PersistenceResult(int games, long saveMillis, long loadMillis, long savePeakBytes, long loadPeakBytes,
+                             long fileBytes) {
+        this.games = games;
+        this.saveMillis = saveMillis;
+        this.loadMillis = loadMillis;
+        this.savePeakBytes = savePeakBytes;
+        this.loadPeakBytes = loadPeakBytes;
+        this.fileBytes = fileBytes;
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    public long getSaveMillis() {
+        return saveMillis;
+    }
+
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    public long getSavePeakBytes() {
+        return savePeakBytes;
+    }
+
+    public long getLoadPeakBytes() {
+        return loadPeakBytes;
+    }
+
+    public long getFileBytes() {
+        return fileBytes;
+    }
+
+    public long getBytesPerGame() {
+        return fileBytes / Math.max(1, games);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%9d games: save %7d ms, peak %6d MB | load %7d ms, peak %6d MB | file %6d MB, %5d bytes/game",
+                games, saveMillis, savePeakBytes >> 20, loadMillis, loadPeakBytes >> 20, fileBytes >> 20, getBytesPerGame());
+    }
+}
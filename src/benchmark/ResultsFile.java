@@ -0,0 +1,89 @@
+package benchmark;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import util.JsonStreamWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Benchmark runs kept on disk, oldest first: {"version": 1, "runs": [{"label", "timestamp", "machine",
+// "results": [{"name", "value", "error", "unit", "higherIsBetter"}]}]}.
+// A file written by a newer format version is refused rather than misread.
+public final class ResultsFile {
+    public static final int VERSION = 1;
+
+    private ResultsFile() {
+    }
+
+    public static List<BenchmarkRun> read(Path path) throws IOException, ParseException {
+        List<BenchmarkRun> runs = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return runs;
+        }
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            JSONObject root = (JSONObject) new JSONParser().parse(reader);
+            long version = ((Number) root.get("version")).longValue();
+            if (version > VERSION) {
+                throw new IOException(path + " has format version " + version + ", this build reads up to " + VERSION);
+            }
+            for (Object item : (JSONArray) root.get("runs")) {
+                JSONObject run = (JSONObject) item;
+                List<Measurement> measurements = new ArrayList<>();
+                for (Object result : (JSONArray) run.get("results")) {
+                    JSONObject obj = (JSONObject) result;
+                    measurements.add(new Measurement((String) obj.get("name"), ((Number) obj.get("value")).doubleValue(),
+                            ((Number) obj.get("error")).doubleValue(), (String) obj.get("unit"),
+                            Boolean.TRUE.equals(obj.get("higherIsBetter"))));
+                }
+                runs.add(new BenchmarkRun((String) run.get("label"), ((Number) run.get("timestamp")).longValue(),
+                        (String) run.get("machine"), measurements));
+            }
+        }
+        return runs;
+    }
+
+    public static void append(Path path, BenchmarkRun run) throws IOException, ParseException {
+        List<BenchmarkRun> runs = read(path);
+        runs.add(run);
+        write(path, runs);
+    }
+
+    public static void write(Path path, List<BenchmarkRun> runs) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (JsonStreamWriter writer = new JsonStreamWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            writer.beginObject();
+            writer.name("version").value(VERSION);
+            writer.name("runs").beginArray();
+            for (BenchmarkRun run : runs) {
+                writer.beginObject();
+                writer.name("label").value(run.getLabel());
+                writer.name("timestamp").value(run.getTimestamp());
+                writer.name("machine").value(run.getMachine());
+                writer.name("results").beginArray();
+                for (Measurement measurement : run.getMeasurements()) {
+                    writer.beginObject();
+                    writer.name("name").value(measurement.getName());
+                    writer.name("value").value(measurement.getValue());
+                    writer.name("error").value(measurement.getError());
+                    writer.name("unit").value(measurement.getUnit());
+                    writer.name("higherIsBetter").value(measurement.isHigherBetter());
+                    writer.endObject();
+                }
+                writer.endArray();
+                writer.endObject();
+            }
+            writer.endArray();
+            writer.endObject();
+        }
+    }
+}
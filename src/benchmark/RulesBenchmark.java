@@ -0,0 +1,119 @@
+package benchmark;
+
+import model.Board;
+import model.ChessPair;
+import model.Colors;
+import model.Game;
+import model.Position;
+import pieces.King;
+import pieces.Piece;
+import util.JsonReaderUtil;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Microbenchmarks for the rules core over the distinct positions stored in a games file.
+// Each call works on the next position (or square, or piece) of the corpus in turn, so every result
+// is an average over the whole corpus rather than one lucky position.
+// Usage: RulesBenchmark [iterationMillis] [gamesFile]
+public class RulesBenchmark {
+    public static final Path DEFAULT_CORPUS = Paths.get("src/input/games.json");
+
+    public static void main(String[] args) throws Exception {
+        int iterationMillis = args.length > 0 ? Integer.parseInt(args[0]) : Harness.ITERATION_MILLIS;
+        Path corpus = args.length > 1 ? Paths.get(args[1]) : DEFAULT_CORPUS;
+        List<Board> boards = loadCorpus(corpus);
+        System.out.println("Corpus: " + boards.size() + " positions from " + corpus);
+        for (BenchmarkResult result : run(boards, new Harness(Harness.WARMUP_ITERATIONS, Harness.ITERATIONS, iterationMillis))) {
+            System.out.println(result);
+        }
+    }
+
+    // Final positions of the stored games, without duplicates and without positions missing a king
+    public static List<Board> loadCorpus(Path path) throws Exception {
+        Map<String, Board> boards = new LinkedHashMap<>();
+        for (Game game : JsonReaderUtil.readGamesAsMap(path).values()) {
+            Board board = game.getBoard();
+            if (board != null && countKings(board) == 2) {
+                boards.putIfAbsent(board.snapshot(null), board);
+            }
+        }
+        return new ArrayList<>(boards.values());
+    }
+
+    public static List<BenchmarkResult> run(List<Board> boards, Harness harness) throws Exception {
+        List<Position> squares = new ArrayList<>();
+        for (int y = 1; y <= 8; y++) {
+            for (char x = 'A'; x <= 'H'; x++) {
+                squares.add(new Position(x, y));
+            }
+        }
+        List<Square> pieces = new ArrayList<>();
+        List<Game> games = new ArrayList<>();
+        for (Board board : boards) {
+            for (ChessPair<Position, Piece> pair : board.getPieces()) {
+                pieces.add(new Square(board, pair.getKey()));
+            }
+            Game game = new Game();
+            game.setBoard(board);
+            games.add(game);
+        }
+        Colors[] sides = Colors.values();
+
+        List<BenchmarkResult> results = new ArrayList<>();
+        int[] next = new int[1];
+        results.add(harness.measure("Board.getPieceAt", () -> {
+            int i = next(next);
+            return boards.get(i / squares.size() % boards.size()).getPieceAt(squares.get(i % squares.size()));
+        }));
+        results.add(harness.measure("Board.getLegalMoves", () -> {
+            Square piece = pieces.get(next(next) % pieces.size());
+            return piece.board.getLegalMoves(piece.position, null);
+        }));
+        results.add(harness.measure("Board.isKingInCheck", () -> {
+            int i = next(next);
+            return boards.get(i / 2 % boards.size()).isKingInCheck(sides[i & 1]);
+        }));
+        results.add(harness.measure("Game.hasAnyLegalMove", () -> {
+            int i = next(next);
+            return games.get(i / 2 % games.size()).hasAnyLegalMove(sides[i & 1]);
+        }));
+        results.add(harness.measure("Board.snapshot", () -> {
+            int i = next(next);
+            return boards.get(i / 2 % boards.size()).snapshot(sides[i & 1]);
+        }));
+        results.add(harness.measure("Board.cloneBoard", () -> boards.get(next(next) % boards.size()).cloneBoard()));
+        return results;
+    }
+
+    // Position in the corpus, wrapping around instead of going negative on long runs
+    private static int next(int[] counter) {
+        int i = counter[0];
+        counter[0] = (i + 1) & Integer.MAX_VALUE;
+        return i;
+    }
+
+    private static int countKings(Board board) {
+        int kings = 0;
+        for (ChessPair<Position, Piece> pair : board.getPieces()) {
+            if (pair.getValue() instanceof King) {
+                kings++;
+            }
+        }
+        return kings;
+    }
+
+    private static class Square {
+        final Board board;
+        final Position position;
+
+        Square(Board board, Position position) {
+            this.board = board;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package engine;
+
+import java.util.Arrays;
+
+import static engine.EngineBoard.BLACK;
+import static engine.EngineBoard.WHITE;
+
+// First-layer sums for both perspectives. EngineBoard calls add/remove from putPiece/removePiece,
+// so make and unmake keep it current without ever rescanning the board.
+public class Accumulator {
+    private final Network network;
+    private final int[][] sums;
+
+    public Accumulator(Network network) {
+        this.network = network;
+        this.sums = new int[2][network.getHidden()];
+    }
+
+    public void refresh(EngineBoard board) {
+        network.resetAccumulator(sums[WHITE]);
+        network.resetAccumulator(sums[BLACK]);
+        for (int piece = 0; piece < 12; piece++) {
+            long pieces = board.bitboard(piece);
+            while (pieces != 0) {
+                int sq = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                add(piece, sq);
+            }
+        }
+    }
+
+    void add(int piece, int sq) {
+        network.addFeature(sums[WHITE], Network.featureIndex(WHITE, piece, sq), 1);
+        network.addFeature(sums[BLACK], Network.featureIndex(BLACK, piece, sq), 1);
+    }
+
+    void remove(int piece, int sq) {
+        network.addFeature(sums[WHITE], Network.featureIndex(WHITE, piece, sq), -1);
+        network.addFeature(sums[BLACK], Network.featureIndex(BLACK, piece, sq), -1);
+    }
+
+    public int evaluate(int sideToMove) {
+        return network.output(sums[sideToMove], sums[sideToMove ^ 1]);
+    }
+
+    public Network getNetwork() {
+        return network;
+    }
+
+    public boolean matches(Accumulator other) {
+        return Arrays.equals(sums[WHITE], other.sums[WHITE])
+                && Arrays.equals(sums[BLACK], other.sums[BLACK]);
+    }
+}
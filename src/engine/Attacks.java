@@ -0,0 +1,105 @@
+package engine;
+
+public final class Attacks {
+    public static final long[] KNIGHT = new long[64];
+    public static final long[] KING = new long[64];
+    public static final long[][] PAWN = new long[2][64];
+
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long FILE_H = FILE_A << 7;
+
+    // Directions: N, NE, E, NW increase the square index, S, SW, W, SE decrease it
+    private static final int[] DIR_FILE = {0, 1, 1, -1, 0, -1, -1, 1};
+    private static final int[] DIR_RANK = {1, 1, 0, 1, -1, -1, 0, -1};
+    private static final long[][] RAYS = new long[8][64];
+
+    private static final int NORTH = 0;
+    private static final int NORTH_EAST = 1;
+    private static final int EAST = 2;
+    private static final int NORTH_WEST = 3;
+    private static final int SOUTH = 4;
+    private static final int SOUTH_WEST = 5;
+    private static final int WEST = 6;
+    private static final int SOUTH_EAST = 7;
+
+    static {
+        int[][] knightSteps = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+        for (int sq = 0; sq < 64; sq++) {
+            int file = sq & 7;
+            int rank = sq >>> 3;
+
+            for (int[] step : knightSteps) {
+                KNIGHT[sq] |= bit(file + step[0], rank + step[1]);
+            }
+            for (int df = -1; df <= 1; df++) {
+                for (int dr = -1; dr <= 1; dr++) {
+                    if (df != 0 || dr != 0) {
+                        KING[sq] |= bit(file + df, rank + dr);
+                    }
+                }
+            }
+            PAWN[EngineBoard.WHITE][sq] = bit(file - 1, rank + 1) | bit(file + 1, rank + 1);
+            PAWN[EngineBoard.BLACK][sq] = bit(file - 1, rank - 1) | bit(file + 1, rank - 1);
+
+            for (int dir = 0; dir < 8; dir++) {
+                int f = file + DIR_FILE[dir];
+                int r = rank + DIR_RANK[dir];
+                while (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                    RAYS[dir][sq] |= 1L << (r * 8 + f);
+                    f += DIR_FILE[dir];
+                    r += DIR_RANK[dir];
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    private static long bit(int file, int rank) {
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            return 0L;
+        }
+        return 1L << (rank * 8 + file);
+    }
+
+    // Every square attacked by a set of pawns of one color
+    public static long pawns(int color, long pawns) {
+        if (color == EngineBoard.WHITE) {
+            return ((pawns & ~FILE_A) << 7) | ((pawns & ~FILE_H) << 9);
+        }
+        return ((pawns & ~FILE_A) >>> 9) | ((pawns & ~FILE_H) >>> 7);
+    }
+
+    public static long rook(int sq, long occupied) {
+        return positiveRay(NORTH, sq, occupied) | positiveRay(EAST, sq, occupied)
+                | negativeRay(SOUTH, sq, occupied) | negativeRay(WEST, sq, occupied);
+    }
+
+    public static long bishop(int sq, long occupied) {
+        return positiveRay(NORTH_EAST, sq, occupied) | positiveRay(NORTH_WEST, sq, occupied)
+                | negativeRay(SOUTH_EAST, sq, occupied) | negativeRay(SOUTH_WEST, sq, occupied);
+    }
+
+    public static long queen(int sq, long occupied) {
+        return rook(sq, occupied) | bishop(sq, occupied);
+    }
+
+    private static long positiveRay(int dir, int sq, long occupied) {
+        long ray = RAYS[dir][sq];
+        long blockers = ray & occupied;
+        if (blockers != 0) {
+            ray ^= RAYS[dir][Long.numberOfTrailingZeros(blockers)];
+        }
+        return ray;
+    }
+
+    private static long negativeRay(int dir, int sq, long occupied) {
+        long ray = RAYS[dir][sq];
+        long blockers = ray & occupied;
+        if (blockers != 0) {
+            ray ^= RAYS[dir][63 - Long.numberOfLeadingZeros(blockers)];
+        }
+        return ray;
+    }
+}
@@ -0,0 +1,109 @@
+package engine;
+
+import exceptions.InvalidCommandException;
+import model.EvaluatorType;
+import util.FenUtil;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Fixed-depth search over a small set of positions; prints node counts, speed and eval cache usage.
+// Usage: Bench [depth] [evalCacheBits] [CLASSICAL|NNUE] [lazyMargin]   (evalCacheBits 0 disables the cache)
+// With the classical evaluator and a lazy margin above 0, the lazy speed-up is then measured over four more passes
+// in the order off, on, on, off, so JIT warm-up favours neither side.
+public class Bench {
+    public static final String[] POSITIONS = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w",
+        "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w",
+        "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1QBPPP/R3KB1R w",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w",
+        "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w",
+        "8/8/4k3/8/2p5/8/B2K4/8 b",
+        "2r3k1/pp3ppp/4p3/3n4/3P4/P3BN2/1P3PPP/2R3K1 b"
+    };
+
+    public static void main(String[] args) throws InvalidCommandException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+        int evalCacheBits = args.length > 1 ? Integer.parseInt(args[1]) : Engine.EVAL_CACHE_BITS;
+        EvaluatorType evaluatorType = EvaluatorType.fromString(args.length > 2 ? args[2] : null);
+        int lazyMargin = args.length > 3 ? Integer.parseInt(args[3]) : ClassicalEvaluator.LAZY_MARGIN;
+
+        Totals totals = run(depth, evalCacheBits, evaluatorType, lazyMargin, true);
+        System.out.println("Nodes: " + totals.nodes);
+        System.out.println("Time (ms): " + totals.millis);
+        System.out.println("Nodes/second: " + totals.nodesPerSecond());
+        if (evalCacheBits > 0) {
+            System.out.printf("Eval cache: %d entries, %d probes, hit rate %.1f%%%n",
+                    1 << evalCacheBits, totals.cacheProbes, percent(totals.cacheHits, totals.cacheProbes));
+        } else {
+            System.out.println("Eval cache: disabled");
+        }
+        if (totals.pawnProbes > 0) {
+            System.out.printf("Pawn table: %d probes, hit rate %.1f%%%n", totals.pawnProbes, percent(totals.pawnHits, totals.pawnProbes));
+        }
+        if (evaluatorType == EvaluatorType.CLASSICAL && lazyMargin > 0) {
+            System.out.printf("Lazy eval: margin %d, %d windowed evaluations, early exit %.1f%%%n",
+                    lazyMargin, totals.lazyProbes, percent(totals.lazyExits, totals.lazyProbes));
+            Totals full = run(depth, evalCacheBits, evaluatorType, 0, false);
+            Totals lazy = run(depth, evalCacheBits, evaluatorType, lazyMargin, false);
+            lazy.add(run(depth, evalCacheBits, evaluatorType, lazyMargin, false));
+            full.add(run(depth, evalCacheBits, evaluatorType, 0, false));
+            System.out.printf("Lazy eval off: %d nodes/second, on: %d nodes/second, speed-up %+.1f%%%n",
+                    full.nodesPerSecond(), lazy.nodesPerSecond(),
+                    100.0 * (lazy.nodesPerSecond() - full.nodesPerSecond()) / Math.max(1, full.nodesPerSecond()));
+        }
+    }
+
+    private static Totals run(int depth, int evalCacheBits, EvaluatorType evaluatorType, int lazyMargin, boolean print)
+            throws InvalidCommandException {
+        Totals totals = new Totals();
+        for (String fen : POSITIONS) {
+            Evaluator evaluator = evaluatorType == EvaluatorType.CLASSICAL
+                    ? new ClassicalEvaluator(lazyMargin) : Engine.createEvaluator(evaluatorType);
+            Engine engine = new Engine(evaluator, evalCacheBits);
+            EngineBoard board = EngineBoard.fromBoard(FenUtil.parseBoard(fen), FenUtil.parseSideToMove(fen));
+            SearchResult result = engine.search(board, new SearchLimits(depth, 0), new AtomicBoolean());
+            totals.nodes += result.getNodes();
+            totals.millis += result.getElapsedMillis();
+            if (print) {
+                System.out.printf("%-70s %s%n", fen, result);
+            }
+
+            if (evaluator instanceof ClassicalEvaluator classical) {
+                totals.pawnProbes += classical.getPawnTable().getProbes();
+                totals.pawnHits += classical.getPawnTable().getHits();
+                totals.lazyProbes += classical.getLazyProbes();
+                totals.lazyExits += classical.getLazyExits();
+            }
+            EvalCache cache = engine.getEvalCache();
+            if (cache != null) {
+                totals.cacheProbes += cache.getProbes();
+                totals.cacheHits += cache.getHits();
+            }
+        }
+        return totals;
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0.0 : 100.0 * part / whole;
+    }
+
+    private static class Totals {
+        long nodes;
+        long millis;
+        long cacheProbes;
+        long cacheHits;
+        long pawnProbes;
+        long pawnHits;
+        long lazyProbes;
+        long lazyExits;
+
+        void add(Totals other) {
+            nodes += other.nodes;
+            millis += other.millis;
+        }
+
+        long nodesPerSecond() {
+            return nodes * 1000 / Math.max(1, millis);
+        }
+    }
+}
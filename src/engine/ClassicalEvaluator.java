@@ -0,0 +1,204 @@
+package engine;
+
+import static engine.EngineBoard.BLACK;
+import static engine.EngineBoard.KING;
+import static engine.EngineBoard.PAWN;
+import static engine.EngineBoard.WHITE;
+
+public class ClassicalEvaluator implements Evaluator {
+    static final int SHIELD_NEAR_MG = 12;
+    static final int SHIELD_FAR_MG = 6;
+    static final int OPEN_FILE_MG = 20;
+    static final int OPEN_FILE_EG = 5;
+    // Per reachable square, indexed by piece type; pawns and kings are not counted
+    static final int[] MOBILITY_MG = {0, 4, 5, 2, 1, 0};
+    static final int[] MOBILITY_EG = {0, 4, 5, 4, 2, 0};
+    // Skip the positional terms when material and piece-square tables alone are this far outside the window
+    public static final int LAZY_MARGIN = 300;
+    private static final int PAWN_TABLE_BITS = 14;
+
+    // Own pawns one and two ranks in front of the king, on its file and the two neighbouring files
+    static final long[][] SHIELD_NEAR = new long[2][64];
+    static final long[][] SHIELD_FAR = new long[2][64];
+    private static final long[] FILES = new long[8];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            FILES[file] = 0x0101010101010101L << file;
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            int file = sq & 7;
+            int rank = sq >>> 3;
+            for (int f = Math.max(0, file - 1); f <= Math.min(7, file + 1); f++) {
+                if (rank + 1 < 8) {
+                    SHIELD_NEAR[WHITE][sq] |= 1L << ((rank + 1) * 8 + f);
+                }
+                if (rank + 2 < 8) {
+                    SHIELD_FAR[WHITE][sq] |= 1L << ((rank + 2) * 8 + f);
+                }
+                if (rank - 1 >= 0) {
+                    SHIELD_NEAR[BLACK][sq] |= 1L << ((rank - 1) * 8 + f);
+                }
+                if (rank - 2 >= 0) {
+                    SHIELD_FAR[BLACK][sq] |= 1L << ((rank - 2) * 8 + f);
+                }
+            }
+        }
+    }
+
+    private final PawnHashTable pawnTable;
+    private final int lazyMargin;
+    private long lazyProbes;
+    private long lazyExits;
+    private boolean lastLazy;
+
+    public ClassicalEvaluator() {
+        this(new PawnHashTable(PAWN_TABLE_BITS));
+    }
+
+    public ClassicalEvaluator(PawnHashTable pawnTable) {
+        this(pawnTable, LAZY_MARGIN);
+    }
+
+    // A lazy margin of 0 turns the early exit off
+    public ClassicalEvaluator(PawnHashTable pawnTable, int lazyMargin) {
+        this.pawnTable = pawnTable;
+        this.lazyMargin = lazyMargin;
+    }
+
+    public ClassicalEvaluator(int lazyMargin) {
+        this(new PawnHashTable(PAWN_TABLE_BITS), lazyMargin);
+    }
+
+    @Override
+    public int evaluate(EngineBoard board) {
+        int materialBalance = board.material(WHITE) - board.material(BLACK);
+        int pawns = pawnTable.probe(board);
+        int mg = materialBalance + board.positionalMg(WHITE) - board.positionalMg(BLACK) + PawnStructure.mg(pawns);
+        int eg = materialBalance + board.positionalEg(WHITE) - board.positionalEg(BLACK) + PawnStructure.eg(pawns);
+        int score = taper(board, mg, eg, board.phase());
+        assert score == recompute(board) : "Incremental evaluation drifted from a full recomputation";
+        return board.sideToMove() == WHITE ? score : -score;
+    }
+
+    @Override
+    public int evaluate(EngineBoard board, int alpha, int beta) {
+        lastLazy = false;
+        if (lazyMargin > 0) {
+            lazyProbes++;
+            int materialBalance = board.material(WHITE) - board.material(BLACK);
+            int mg = materialBalance + board.positionalMg(WHITE) - board.positionalMg(BLACK);
+            int eg = materialBalance + board.positionalEg(WHITE) - board.positionalEg(BLACK);
+            int weight = Math.min(board.phase(), PieceSquareTables.MAX_PHASE);
+            int cheap = (mg * weight + eg * (PieceSquareTables.MAX_PHASE - weight)) / PieceSquareTables.MAX_PHASE;
+            if (board.sideToMove() != WHITE) {
+                cheap = -cheap;
+            }
+            if (cheap - lazyMargin >= beta || cheap + lazyMargin <= alpha) {
+                lazyExits++;
+                lastLazy = true;
+                return cheap;
+            }
+        }
+        return evaluate(board);
+    }
+
+    // Scans every piece from scratch; only meant for checking the incremental terms kept by EngineBoard
+    public static int recompute(EngineBoard board) {
+        int mg = 0;
+        int eg = 0;
+        int phase = 0;
+        for (int piece = 0; piece < 12; piece++) {
+            int type = EngineBoard.typeOf(piece);
+            int sign = EngineBoard.colorOf(piece) == WHITE ? 1 : -1;
+            long pieces = board.bitboard(piece);
+            while (pieces != 0) {
+                int sq = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                mg += sign * (PieceSquareTables.MATERIAL[type] + PieceSquareTables.POSITIONAL_MG[piece][sq]);
+                eg += sign * (PieceSquareTables.MATERIAL[type] + PieceSquareTables.POSITIONAL_EG[piece][sq]);
+                phase += PieceSquareTables.PHASE_WEIGHT[type];
+            }
+        }
+        int pawns = PawnStructure.evaluate(board);
+        return taper(board, mg + PawnStructure.mg(pawns), eg + PawnStructure.eg(pawns), phase);
+    }
+
+    public PawnHashTable getPawnTable() {
+        return pawnTable;
+    }
+
+    @Override
+    public boolean wasLazy() {
+        return lastLazy;
+    }
+
+    public int getLazyMargin() {
+        return lazyMargin;
+    }
+
+    public long getLazyProbes() {
+        return lazyProbes;
+    }
+
+    public long getLazyExits() {
+        return lazyExits;
+    }
+
+    // White-relative blend of the middlegame and endgame scores, king safety included
+    private static int taper(EngineBoard board, int mg, int eg, int phase) {
+        int openFiles = openFilesNearKing(board, WHITE) - openFilesNearKing(board, BLACK);
+        for (int type = EngineBoard.KNIGHT; type <= EngineBoard.QUEEN; type++) {
+            int mobility = mobility(board, WHITE, type) - mobility(board, BLACK, type);
+            mg += mobility * MOBILITY_MG[type];
+            eg += mobility * MOBILITY_EG[type];
+        }
+        mg += (shieldPawns(board, WHITE, SHIELD_NEAR) - shieldPawns(board, BLACK, SHIELD_NEAR)) * SHIELD_NEAR_MG
+                + (shieldPawns(board, WHITE, SHIELD_FAR) - shieldPawns(board, BLACK, SHIELD_FAR)) * SHIELD_FAR_MG
+                - openFiles * OPEN_FILE_MG;
+        eg -= openFiles * OPEN_FILE_EG;
+
+        int weight = Math.min(phase, PieceSquareTables.MAX_PHASE);
+        return (mg * weight + eg * (PieceSquareTables.MAX_PHASE - weight)) / PieceSquareTables.MAX_PHASE;
+    }
+
+    // Squares the pieces of one type can move to, leaving out own pieces and squares guarded by enemy pawns
+    static int mobility(EngineBoard board, int color, int type) {
+        long occupied = board.occupied();
+        long safe = ~board.occupancy(color)
+                & ~Attacks.pawns(color ^ 1, board.bitboard(EngineBoard.pieceOf(color ^ 1, PAWN)));
+        int count = 0;
+        long pieces = board.bitboard(EngineBoard.pieceOf(color, type));
+        while (pieces != 0) {
+            int sq = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            count += Long.bitCount(EngineBoard.attacksFrom(type, sq, occupied) & safe);
+        }
+        return count;
+    }
+
+    static int shieldPawns(EngineBoard board, int color, long[][] shield) {
+        long king = board.bitboard(EngineBoard.pieceOf(color, KING));
+        if (king == 0) {
+            return 0;
+        }
+        long pawns = board.bitboard(EngineBoard.pieceOf(color, PAWN));
+        return Long.bitCount(pawns & shield[color][Long.numberOfTrailingZeros(king)]);
+    }
+
+    static int openFilesNearKing(EngineBoard board, int color) {
+        long king = board.bitboard(EngineBoard.pieceOf(color, KING));
+        if (king == 0) {
+            return 0;
+        }
+        int sq = Long.numberOfTrailingZeros(king);
+        long pawns = board.bitboard(EngineBoard.pieceOf(color, PAWN));
+        int open = 0;
+        for (int file = Math.max(0, (sq & 7) - 1); file <= Math.min(7, (sq & 7) + 1); file++) {
+            if ((pawns & FILES[file]) == 0) {
+                open++;
+            }
+        }
+        return open;
+    }
+}
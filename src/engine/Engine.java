@@ -0,0 +1,109 @@
+package engine;
+
+import model.Board;
+import model.Colors;
+import model.EvaluatorType;
+import model.Game;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class Engine {
+    private static final int TABLE_SIZE_BITS = 20;
+    public static final int EVAL_CACHE_BITS = 16;
+
+    private final TranspositionTable table;
+    private final int evalCacheBits;
+    private EvaluatorType evaluatorType;
+    private EvalCache evalCache;
+    private Search search;
+    private Tablebases tablebases;
+
+    public Engine() {
+        this(new ClassicalEvaluator());
+        evaluatorType = EvaluatorType.CLASSICAL;
+    }
+
+    public Engine(Evaluator evaluator) {
+        this(evaluator, EVAL_CACHE_BITS);
+    }
+
+    // An evalCacheBits of 0 or less searches without an evaluation cache
+    public Engine(Evaluator evaluator, int evalCacheBits) {
+        this.table = new TranspositionTable(TABLE_SIZE_BITS);
+        this.evalCacheBits = evalCacheBits;
+        install(evaluator);
+    }
+
+    public static Evaluator createEvaluator(EvaluatorType type) {
+        if (type == EvaluatorType.NNUE) {
+            try {
+                return new NnueEvaluator(Network.loadDefault());
+            } catch (IOException e) {
+                System.out.println("Could not load the network, using classical evaluation: " + e.getMessage());
+            }
+        }
+        return new ClassicalEvaluator();
+    }
+
+    // Switches evaluation for the next search; scores from another evaluator are not comparable,
+    // so the transposition table is cleared along with the switch
+    public synchronized void useEvaluator(EvaluatorType type) {
+        if (type == evaluatorType) {
+            return;
+        }
+        install(createEvaluator(type));
+        table.clear();
+        evaluatorType = type;
+    }
+
+    private void install(Evaluator evaluator) {
+        evalCache = evalCacheBits > 0 ? new EvalCache(evaluator, evalCacheBits) : null;
+        search = new Search(table, evalCache != null ? evalCache : evaluator);
+        search.useTablebases(tablebases);
+    }
+
+    // The default tables are loaded, and built the first time, on the first search rather than at construction,
+    // so creating an engine on the GUI thread stays cheap
+    public synchronized void useTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+        search.useTablebases(tablebases);
+    }
+
+    public SearchResult think(Game game) {
+        useEvaluator(game.getEvaluatorType());
+        return think(game, SearchLimits.of(game.getDifficulty()));
+    }
+
+    public SearchResult think(Game game, SearchLimits limits) {
+        return search(EngineBoard.fromGame(game), limits, new AtomicBoolean());
+    }
+
+    public SearchResult think(Board board, Colors sideToMove, SearchLimits limits) {
+        return search(EngineBoard.fromBoard(board, sideToMove), limits, new AtomicBoolean());
+    }
+
+    // Searches are serialized so a ponder search and a move search never share the search state
+    public synchronized SearchResult search(EngineBoard board, SearchLimits limits, AtomicBoolean cancelled) {
+        if (tablebases == null) {
+            useTablebases(Tablebases.loadDefault());
+        }
+        return search.search(board, limits, cancelled);
+    }
+
+    public synchronized int quiescence(EngineBoard board) {
+        return search.quiescence(board);
+    }
+
+    public synchronized void newGame() {
+        table.clear();
+        search.clearHistory();
+        if (evalCache != null) {
+            evalCache.clear();
+        }
+    }
+
+    public synchronized EvalCache getEvalCache() {
+        return evalCache;
+    }
+}
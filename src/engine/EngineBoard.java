@@ -0,0 +1,544 @@
+package engine;
+
+import model.Board;
+import model.ChessPair;
+import model.Colors;
+import model.Game;
+import model.Position;
+import pieces.Piece;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class EngineBoard {
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    public static final int EMPTY = -1;
+    public static final int MAX_MOVES = 256;
+    private static final int MAX_HISTORY = 1024;
+    private static final int SEE_KING_VALUE = 20000;
+
+    private final int[] squares = new int[64];
+    private final long[] bitboards = new long[12];
+    private final long[] occupancy = new long[2];
+    private final int[] material = new int[2];
+    private final int[] positionalMg = new int[2];
+    private final int[] positionalEg = new int[2];
+    private int phase;
+    private int sideToMove;
+    private long hash;
+    private long pawnKey;
+    private Accumulator accumulator;
+
+    // Undo information, indexed by the number of moves made on this board
+    private final long[] hashHistory = new long[MAX_HISTORY];
+    private final int[] capturedHistory = new int[MAX_HISTORY];
+    private final int[] reversibleHistory = new int[MAX_HISTORY];
+    private int historySize;
+    private int reversiblePlies;
+
+    public EngineBoard() {
+        Arrays.fill(squares, EMPTY);
+    }
+
+    public static EngineBoard fromBoard(Board board, Colors sideToMove) {
+        EngineBoard engineBoard = new EngineBoard();
+        for (ChessPair<Position, Piece> pair : board.getPieces()) {
+            Piece piece = pair.getValue();
+            int color = piece.getColor() == Colors.BLACK ? BLACK : WHITE;
+            engineBoard.putPiece(Moves.square(pair.getKey()), pieceOf(color, typeOf(piece.type())));
+        }
+        if (sideToMove == Colors.BLACK) {
+            engineBoard.sideToMove = BLACK;
+            engineBoard.hash ^= Zobrist.SIDE;
+        }
+        return engineBoard;
+    }
+
+    // The game's current position with the positions played before it as history, so the search scores a
+    // return to any of them as a repetition. Half the history is kept free for the search's own plies.
+    public static EngineBoard fromGame(Game game) {
+        EngineBoard engineBoard = fromBoard(game.getBoard(), game.getCurrentPlayer().getColor());
+        List<String> positions = game.getPositionHistory();
+        int end = positions.size();
+        if (end > 0 && snapshotKey(positions.get(end - 1)) == engineBoard.hash) {
+            end--;
+        }
+        int start = Math.max(0, end - MAX_HISTORY / 2);
+        for (int i = start; i < end; i++) {
+            engineBoard.hashHistory[engineBoard.historySize] = snapshotKey(positions.get(i));
+            engineBoard.capturedHistory[engineBoard.historySize] = EMPTY;
+            engineBoard.reversibleHistory[engineBoard.historySize] = engineBoard.reversiblePlies;
+            engineBoard.historySize++;
+            // Captures and pawn moves are not recorded, but no position before one can repeat after it
+            engineBoard.reversiblePlies++;
+        }
+        return engineBoard;
+    }
+
+    // The key fromBoard would give the position in a Board.snapshot, read straight from its text:
+    // side to move, then "type-COLOR@square;" per piece
+    static long snapshotKey(String snapshot) {
+        long key = snapshot.startsWith("BLACK|") ? Zobrist.SIDE : 0L;
+        int i = snapshot.indexOf('|') + 1;
+        while (i < snapshot.length()) {
+            int at = snapshot.indexOf('@', i);
+            int color = snapshot.startsWith("BLACK", i + 2) ? BLACK : WHITE;
+            int sq = (snapshot.charAt(at + 2) - '1') * 8 + (snapshot.charAt(at + 1) - 'A');
+            key ^= Zobrist.PIECE_SQUARE[pieceOf(color, typeOf(snapshot.charAt(i)))][sq];
+            i = snapshot.indexOf(';', at) + 1;
+        }
+        return key;
+    }
+
+    // Independent copy for searching on another thread; an NNUE accumulator is not carried over
+    public EngineBoard copy() {
+        EngineBoard copy = new EngineBoard();
+        System.arraycopy(squares, 0, copy.squares, 0, squares.length);
+        System.arraycopy(bitboards, 0, copy.bitboards, 0, bitboards.length);
+        System.arraycopy(occupancy, 0, copy.occupancy, 0, occupancy.length);
+        System.arraycopy(material, 0, copy.material, 0, material.length);
+        System.arraycopy(positionalMg, 0, copy.positionalMg, 0, positionalMg.length);
+        System.arraycopy(positionalEg, 0, copy.positionalEg, 0, positionalEg.length);
+        System.arraycopy(hashHistory, 0, copy.hashHistory, 0, historySize);
+        System.arraycopy(capturedHistory, 0, copy.capturedHistory, 0, historySize);
+        System.arraycopy(reversibleHistory, 0, copy.reversibleHistory, 0, historySize);
+        copy.phase = phase;
+        copy.sideToMove = sideToMove;
+        copy.hash = hash;
+        copy.pawnKey = pawnKey;
+        copy.historySize = historySize;
+        copy.reversiblePlies = reversiblePlies;
+        return copy;
+    }
+
+    public static int pieceOf(int color, int type) {
+        return color * 6 + type;
+    }
+
+    public static int colorOf(int piece) {
+        return piece < 6 ? WHITE : BLACK;
+    }
+
+    public static int typeOf(int piece) {
+        return piece < 6 ? piece : piece - 6;
+    }
+
+    public static int typeOf(char type) {
+        return switch (type) {
+            case 'P' -> PAWN;
+            case 'N' -> KNIGHT;
+            case 'B' -> BISHOP;
+            case 'R' -> ROOK;
+            case 'Q' -> QUEEN;
+            case 'K' -> KING;
+            default -> throw new IllegalArgumentException("Unknown piece type: " + type);
+        };
+    }
+
+    public static Colors toColors(int color) {
+        return color == WHITE ? Colors.WHITE : Colors.BLACK;
+    }
+
+    private void putPiece(int sq, int piece) {
+        int color = colorOf(piece);
+        squares[sq] = piece;
+        bitboards[piece] |= 1L << sq;
+        occupancy[color] |= 1L << sq;
+        hash ^= Zobrist.PIECE_SQUARE[piece][sq];
+        material[color] += PieceSquareTables.MATERIAL[typeOf(piece)];
+        positionalMg[color] += PieceSquareTables.POSITIONAL_MG[piece][sq];
+        positionalEg[color] += PieceSquareTables.POSITIONAL_EG[piece][sq];
+        phase += PieceSquareTables.PHASE_WEIGHT[typeOf(piece)];
+        if (typeOf(piece) == PAWN) {
+            pawnKey ^= Zobrist.PIECE_SQUARE[piece][sq];
+        }
+        if (accumulator != null) {
+            accumulator.add(piece, sq);
+        }
+    }
+
+    private void removePiece(int sq) {
+        int piece = squares[sq];
+        int color = colorOf(piece);
+        squares[sq] = EMPTY;
+        bitboards[piece] &= ~(1L << sq);
+        occupancy[color] &= ~(1L << sq);
+        hash ^= Zobrist.PIECE_SQUARE[piece][sq];
+        material[color] -= PieceSquareTables.MATERIAL[typeOf(piece)];
+        positionalMg[color] -= PieceSquareTables.POSITIONAL_MG[piece][sq];
+        positionalEg[color] -= PieceSquareTables.POSITIONAL_EG[piece][sq];
+        phase -= PieceSquareTables.PHASE_WEIGHT[typeOf(piece)];
+        if (typeOf(piece) == PAWN) {
+            pawnKey ^= Zobrist.PIECE_SQUARE[piece][sq];
+        }
+        if (accumulator != null) {
+            accumulator.remove(piece, sq);
+        }
+    }
+
+    public int generateMoves(int[] moves, int start, boolean capturesOnly) {
+        int count = start;
+        int us = sideToMove;
+        long own = occupancy[us];
+        long enemy = occupancy[us ^ 1];
+        long occupied = own | enemy;
+        long targets = capturesOnly ? enemy : ~own;
+
+        long pawns = bitboards[pieceOf(us, PAWN)];
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            count = addPawnMoves(moves, count, from, occupied, enemy, capturesOnly);
+        }
+
+        for (int type = KNIGHT; type <= KING; type++) {
+            long pieces = bitboards[pieceOf(us, type)];
+            while (pieces != 0) {
+                int from = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                long attacks = attacksFrom(type, from, occupied) & targets;
+                while (attacks != 0) {
+                    int to = Long.numberOfTrailingZeros(attacks);
+                    attacks &= attacks - 1;
+                    moves[count++] = Moves.encode(from, to, 0);
+                }
+            }
+        }
+        return count;
+    }
+
+    private int addPawnMoves(int[] moves, int count, int from, long occupied, long enemy, boolean capturesOnly) {
+        int us = sideToMove;
+        int forward = us == WHITE ? 8 : -8;
+        int startRank = us == WHITE ? 1 : 6;
+        int lastRank = us == WHITE ? 7 : 0;
+        if ((from >>> 3) == lastRank) {
+            return count;
+        }
+
+        int oneStep = from + forward;
+        if ((occupied & (1L << oneStep)) == 0) {
+            boolean promotes = (oneStep >>> 3) == lastRank;
+            if (promotes) {
+                moves[count++] = Moves.encode(from, oneStep, QUEEN);
+            } else if (!capturesOnly) {
+                moves[count++] = Moves.encode(from, oneStep, 0);
+                int twoSteps = oneStep + forward;
+                if ((from >>> 3) == startRank && (occupied & (1L << twoSteps)) == 0) {
+                    moves[count++] = Moves.encode(from, twoSteps, 0);
+                }
+            }
+        }
+
+        long captures = Attacks.PAWN[us][from] & enemy;
+        while (captures != 0) {
+            int to = Long.numberOfTrailingZeros(captures);
+            captures &= captures - 1;
+            moves[count++] = Moves.encode(from, to, (to >>> 3) == lastRank ? QUEEN : 0);
+        }
+        return count;
+    }
+
+    public static long attacksFrom(int type, int sq, long occupied) {
+        return switch (type) {
+            case KNIGHT -> Attacks.KNIGHT[sq];
+            case BISHOP -> Attacks.bishop(sq, occupied);
+            case ROOK -> Attacks.rook(sq, occupied);
+            case QUEEN -> Attacks.queen(sq, occupied);
+            case KING -> Attacks.KING[sq];
+            default -> 0L;
+        };
+    }
+
+    public int findLegalMove(int from, int to) {
+        int[] moves = new int[MAX_MOVES];
+        int count = generateMoves(moves, 0, false);
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (Moves.from(move) == from && Moves.to(move) == to && makeMove(move)) {
+                unmakeMove(move);
+                return move;
+            }
+        }
+        return Moves.NONE;
+    }
+
+    public boolean isSquareAttacked(int sq, int byColor) {
+        long occupied = occupancy[WHITE] | occupancy[BLACK];
+        if ((Attacks.PAWN[byColor ^ 1][sq] & bitboards[pieceOf(byColor, PAWN)]) != 0) {
+            return true;
+        }
+        if ((Attacks.KNIGHT[sq] & bitboards[pieceOf(byColor, KNIGHT)]) != 0) {
+            return true;
+        }
+        if ((Attacks.KING[sq] & bitboards[pieceOf(byColor, KING)]) != 0) {
+            return true;
+        }
+        long queens = bitboards[pieceOf(byColor, QUEEN)];
+        if ((Attacks.bishop(sq, occupied) & (bitboards[pieceOf(byColor, BISHOP)] | queens)) != 0) {
+            return true;
+        }
+        return (Attacks.rook(sq, occupied) & (bitboards[pieceOf(byColor, ROOK)] | queens)) != 0;
+    }
+
+    // Pieces of both colors attacking a square, with sliders seen through the given occupancy
+    public long attackersTo(int sq, long occupied) {
+        long queens = bitboards[pieceOf(WHITE, QUEEN)] | bitboards[pieceOf(BLACK, QUEEN)];
+        long diagonal = bitboards[pieceOf(WHITE, BISHOP)] | bitboards[pieceOf(BLACK, BISHOP)] | queens;
+        long straight = bitboards[pieceOf(WHITE, ROOK)] | bitboards[pieceOf(BLACK, ROOK)] | queens;
+        return ((Attacks.PAWN[BLACK][sq] & bitboards[pieceOf(WHITE, PAWN)])
+                | (Attacks.PAWN[WHITE][sq] & bitboards[pieceOf(BLACK, PAWN)])
+                | (Attacks.KNIGHT[sq] & (bitboards[pieceOf(WHITE, KNIGHT)] | bitboards[pieceOf(BLACK, KNIGHT)]))
+                | (Attacks.KING[sq] & (bitboards[pieceOf(WHITE, KING)] | bitboards[pieceOf(BLACK, KING)]))
+                | (Attacks.bishop(sq, occupied) & diagonal)
+                | (Attacks.rook(sq, occupied) & straight)) & occupied;
+    }
+
+    // Static exchange evaluation: material won by the side making the move, in centipawns, if both sides
+    // keep recapturing on the target square with their least valuable attacker. Sliders behind a piece
+    // that has just captured join in as x-rays. The board is not changed.
+    public int see(int move) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int[] gain = new int[32];
+        int depth = 0;
+        long occupied = occupied();
+        long attackers = attackersTo(to, occupied);
+        long diagonal = bitboards[pieceOf(WHITE, BISHOP)] | bitboards[pieceOf(BLACK, BISHOP)]
+                | bitboards[pieceOf(WHITE, QUEEN)] | bitboards[pieceOf(BLACK, QUEEN)];
+        long straight = bitboards[pieceOf(WHITE, ROOK)] | bitboards[pieceOf(BLACK, ROOK)]
+                | bitboards[pieceOf(WHITE, QUEEN)] | bitboards[pieceOf(BLACK, QUEEN)];
+
+        int side = colorOf(squares[from]);
+        int attackerType = typeOf(squares[from]);
+        gain[0] = squares[to] == EMPTY ? 0 : seeValue(typeOf(squares[to]));
+        if (Moves.promotion(move) != 0) {
+            gain[0] += seeValue(QUEEN) - seeValue(PAWN);
+            attackerType = QUEEN;
+        }
+        long fromBit = 1L << from;
+
+        while (fromBit != 0 && depth < gain.length - 1) {
+            depth++;
+            gain[depth] = seeValue(attackerType) - gain[depth - 1];
+            if (Math.max(-gain[depth - 1], gain[depth]) < 0) {
+                break;
+            }
+            attackers &= ~fromBit;
+            occupied &= ~fromBit;
+            attackers |= ((Attacks.bishop(to, occupied) & diagonal) | (Attacks.rook(to, occupied) & straight)) & occupied;
+
+            side ^= 1;
+            fromBit = 0;
+            for (int type = PAWN; type <= KING; type++) {
+                long candidates = attackers & bitboards[pieceOf(side, type)];
+                if (candidates != 0) {
+                    fromBit = candidates & -candidates;
+                    attackerType = type;
+                    break;
+                }
+            }
+        }
+        while (--depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+        }
+        return gain[0];
+    }
+
+    private static int seeValue(int type) {
+        return type == KING ? SEE_KING_VALUE : PieceSquareTables.MATERIAL[type];
+    }
+
+    public boolean isKingAttacked(int color) {
+        long king = bitboards[pieceOf(color, KING)];
+        if (king == 0) {
+            return false;
+        }
+        return isSquareAttacked(Long.numberOfTrailingZeros(king), color ^ 1);
+    }
+
+    public boolean inCheck() {
+        return isKingAttacked(sideToMove);
+    }
+
+    public boolean makeMove(int move) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int promotion = Moves.promotion(move);
+        int piece = squares[from];
+        int captured = squares[to];
+
+        hashHistory[historySize] = hash;
+        capturedHistory[historySize] = captured;
+        reversibleHistory[historySize] = reversiblePlies;
+        historySize++;
+
+        if (captured != EMPTY) {
+            removePiece(to);
+        }
+        removePiece(from);
+        putPiece(to, promotion != 0 ? pieceOf(sideToMove, promotion) : piece);
+
+        reversiblePlies = captured != EMPTY || typeOf(piece) == PAWN ? 0 : reversiblePlies + 1;
+        sideToMove ^= 1;
+        hash ^= Zobrist.SIDE;
+
+        if (isKingAttacked(sideToMove ^ 1)) {
+            unmakeMove(move);
+            return false;
+        }
+        return true;
+    }
+
+    public void unmakeMove(int move) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        historySize--;
+        sideToMove ^= 1;
+
+        int piece = Moves.promotion(move) != 0 ? pieceOf(sideToMove, PAWN) : squares[to];
+        removePiece(to);
+        putPiece(from, piece);
+        int captured = capturedHistory[historySize];
+        if (captured != EMPTY) {
+            putPiece(to, captured);
+        }
+
+        hash = hashHistory[historySize];
+        reversiblePlies = reversibleHistory[historySize];
+    }
+
+    // Leaf count of the legal move tree; must agree with Board.perft on every position
+    public long perft(int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        int[] moves = new int[MAX_MOVES];
+        int count = generateMoves(moves, 0, false);
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            if (!makeMove(moves[i])) {
+                continue;
+            }
+            nodes += depth == 1 ? 1 : perft(depth - 1);
+            unmakeMove(moves[i]);
+        }
+        return nodes;
+    }
+
+    public Map<String, Long> divide(int depth) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        int[] moves = new int[MAX_MOVES];
+        int count = depth > 0 ? generateMoves(moves, 0, false) : 0;
+        for (int i = 0; i < count; i++) {
+            if (!makeMove(moves[i])) {
+                continue;
+            }
+            counts.put(Moves.toString(moves[i]), perft(depth - 1));
+            unmakeMove(moves[i]);
+        }
+        return counts;
+    }
+
+    public void makeNullMove() {
+        hashHistory[historySize] = hash;
+        capturedHistory[historySize] = EMPTY;
+        reversibleHistory[historySize] = reversiblePlies;
+        historySize++;
+
+        reversiblePlies = 0;
+        sideToMove ^= 1;
+        hash ^= Zobrist.SIDE;
+    }
+
+    public void unmakeNullMove() {
+        historySize--;
+        sideToMove ^= 1;
+        hash = hashHistory[historySize];
+        reversiblePlies = reversibleHistory[historySize];
+    }
+
+    public boolean isRepetition() {
+        for (int back = 4; back <= reversiblePlies && back <= historySize; back += 2) {
+            if (hashHistory[historySize - back] == hash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasNonPawnMaterial(int color) {
+        return (bitboards[pieceOf(color, KNIGHT)] | bitboards[pieceOf(color, BISHOP)]
+                | bitboards[pieceOf(color, ROOK)] | bitboards[pieceOf(color, QUEEN)]) != 0;
+    }
+
+    public boolean isCapture(int move) {
+        return squares[Moves.to(move)] != EMPTY;
+    }
+
+    public int pieceAt(int sq) {
+        return squares[sq];
+    }
+
+    public long bitboard(int piece) {
+        return bitboards[piece];
+    }
+
+    public long occupancy(int color) {
+        return occupancy[color];
+    }
+
+    public long occupied() {
+        return occupancy[WHITE] | occupancy[BLACK];
+    }
+
+    public int material(int color) {
+        return material[color];
+    }
+
+    public int positionalMg(int color) {
+        return positionalMg[color];
+    }
+
+    public int positionalEg(int color) {
+        return positionalEg[color];
+    }
+
+    // Remaining non-pawn material in PieceSquareTables.PHASE_WEIGHT units; MAX_PHASE or more is a full middlegame
+    public int phase() {
+        return phase;
+    }
+
+    public int sideToMove() {
+        return sideToMove;
+    }
+
+    public long hash() {
+        return hash;
+    }
+
+    // Network accumulator kept in step with every piece change, if an NNUE evaluator attached one
+    public Accumulator getAccumulator() {
+        return accumulator;
+    }
+
+    public void setAccumulator(Accumulator accumulator) {
+        this.accumulator = accumulator;
+    }
+
+    // Zobrist key of the pawns alone, for the pawn-structure table
+    public long pawnKey() {
+        return pawnKey;
+    }
+}
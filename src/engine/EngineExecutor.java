@@ -0,0 +1,108 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+public class EngineExecutor {
+    private final Engine engine;
+    private final Executor publisher;
+    private final ExecutorService worker;
+    private final List<SearchTask> tasks;
+
+    // Results are handed to the publisher, e.g. SwingUtilities::invokeLater for the GUI
+    public EngineExecutor(Engine engine, Executor publisher) {
+        this.engine = engine;
+        this.publisher = publisher;
+        this.tasks = new ArrayList<>();
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "engine-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public synchronized Future<SearchResult> submit(EngineBoard board, SearchLimits limits,
+                                                    Consumer<SearchResult> onResult) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        return schedule(new SearchTask(() -> engine.search(board, limits, cancelled), cancelled, onResult));
+    }
+
+    // Publishes a search that is already queued or finished, such as a pondered one
+    public synchronized Future<SearchResult> deliver(Future<SearchResult> pending, Consumer<SearchResult> onResult) {
+        return schedule(new SearchTask(pending::get, new AtomicBoolean(), onResult));
+    }
+
+    // Runs other engine work, such as switching the evaluator, on the worker after the searches already queued
+    public synchronized void execute(Runnable work) {
+        worker.execute(work);
+    }
+
+    public synchronized void cancelAll() {
+        for (SearchTask task : new ArrayList<>(tasks)) {
+            task.cancel(false);
+        }
+        tasks.clear();
+    }
+
+    public void shutdown() {
+        cancelAll();
+        worker.shutdown();
+    }
+
+    private Future<SearchResult> schedule(SearchTask task) {
+        tasks.add(task);
+        worker.execute(task);
+        return task;
+    }
+
+    private synchronized void finished(SearchTask task) {
+        tasks.remove(task);
+    }
+
+    private class SearchTask extends FutureTask<SearchResult> {
+        private final AtomicBoolean cancelled;
+        private final Consumer<SearchResult> onResult;
+
+        SearchTask(Callable<SearchResult> work, AtomicBoolean cancelled, Consumer<SearchResult> onResult) {
+            super(work);
+            this.cancelled = cancelled;
+            this.onResult = onResult;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            cancelled.set(true);
+            return super.cancel(false);
+        }
+
+        @Override
+        protected void set(SearchResult result) {
+            if (onResult != null && !cancelled.get()) {
+                // Re-checked on the publisher thread so a cancel issued there wins over a late result
+                publisher.execute(() -> {
+                    if (!cancelled.get()) {
+                        onResult.accept(result);
+                    }
+                });
+            }
+            super.set(result);
+        }
+
+        @Override
+        protected void done() {
+            finished(this);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package engine;
+
+import java.util.Arrays;
+
+// Fixed-size, always-replace cache of static evaluations keyed by the Zobrist hash.
+// Each Engine owns one and only searches on one thread at a time, so the cache needs no locking.
+public class EvalCache implements Evaluator {
+    private final Evaluator evaluator;
+    private final long[] keys;
+    private final int[] scores;
+    private final int mask;
+    private long probes;
+    private long hits;
+    // Whether the last score returned came from a lazy exit, which a cache hit never does
+    private boolean lastLazy;
+
+    public EvalCache(Evaluator evaluator, int sizeBits) {
+        this.evaluator = evaluator;
+        keys = new long[1 << sizeBits];
+        scores = new int[1 << sizeBits];
+        mask = (1 << sizeBits) - 1;
+    }
+
+    @Override
+    public void prepare(EngineBoard board) {
+        evaluator.prepare(board);
+    }
+
+    @Override
+    public int evaluate(EngineBoard board) {
+        long hash = board.hash();
+        int index = (int) hash & mask;
+        probes++;
+        if (keys[index] == hash) {
+            hits++;
+            lastLazy = false;
+            return scores[index];
+        }
+        int score = evaluator.evaluate(board);
+        lastLazy = false;
+        keys[index] = hash;
+        scores[index] = score;
+        return score;
+    }
+
+    // Lazy scores are only bounds for this window, so they are passed on without being stored
+    @Override
+    public int evaluate(EngineBoard board, int alpha, int beta) {
+        long hash = board.hash();
+        int index = (int) hash & mask;
+        probes++;
+        if (keys[index] == hash) {
+            hits++;
+            lastLazy = false;
+            return scores[index];
+        }
+        int score = evaluator.evaluate(board, alpha, beta);
+        lastLazy = evaluator.wasLazy();
+        if (!lastLazy) {
+            keys[index] = hash;
+            scores[index] = score;
+        }
+        return score;
+    }
+
+    @Override
+    public boolean wasLazy() {
+        return lastLazy;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        resetStatistics();
+    }
+
+    public void resetStatistics() {
+        probes = 0;
+        hits = 0;
+    }
+
+    public long getProbes() {
+        return probes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public double getHitRate() {
+        return probes == 0 ? 0.0 : (double) hits / probes;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+}
@@ -0,0 +1,21 @@
+package engine;
+
+public interface Evaluator {
+    // Called once before a search so evaluators with incremental state can attach it to the board
+    default void prepare(EngineBoard board) {
+    }
+
+    // Static score of the position in centipawns, from the point of view of the side to move
+    int evaluate(EngineBoard board);
+
+    // Same score when it lies inside (alpha, beta); outside the window an evaluator may stop early and
+    // return any value on the same side of the window, so callers must only compare it against the bounds
+    default int evaluate(EngineBoard board, int alpha, int beta) {
+        return evaluate(board);
+    }
+
+    // Whether the last windowed evaluation stopped early, in which case its score is only a bound
+    default boolean wasLazy() {
+        return false;
+    }
+}
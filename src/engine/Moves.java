@@ -0,0 +1,72 @@
+package engine;
+
+import exceptions.InvalidCommandException;
+import model.Colors;
+import model.Move;
+import model.Position;
+
+public final class Moves {
+    public static final int NONE = 0;
+
+    private static final Position[] POSITIONS = new Position[64];
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            try {
+                POSITIONS[sq] = new Position((char) ('A' + (sq & 7)), (sq >>> 3) + 1);
+            } catch (InvalidCommandException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private Moves() {
+    }
+
+    public static int encode(int from, int to, int promotion) {
+        return from | (to << 6) | (promotion << 12);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static int promotion(int move) {
+        return (move >>> 12) & 7;
+    }
+
+    public static int square(Position position) {
+        return (position.getY() - 1) * 8 + (position.getX() - 'A');
+    }
+
+    public static Position position(int sq) {
+        return POSITIONS[sq];
+    }
+
+    public static Position fromPosition(int move) {
+        return POSITIONS[from(move)];
+    }
+
+    public static Position toPosition(int move) {
+        return POSITIONS[to(move)];
+    }
+
+    public static int fromModel(Move move) {
+        return encode(square(move.getFrom()), square(move.getTo()), 0);
+    }
+
+    public static Move toModel(int move, Colors color) {
+        return new Move(color, fromPosition(move), toPosition(move));
+    }
+
+    public static String toString(int move) {
+        if (move == NONE) {
+            return "none";
+        }
+        return POSITIONS[from(move)] + "-" + POSITIONS[to(move)];
+    }
+}
@@ -0,0 +1,172 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Quantized weights of a one-hidden-layer network over 768 piece-square features per perspective.
+// File layout, little-endian: int magic, int version, int hidden size, int output divisor, int output bias,
+// then int16 feature weights [768][hidden], int16 feature biases [hidden], int16 output weights [2][hidden].
+// The weights stay in the memory-mapped file, so every engine shares the same pages.
+public class Network {
+    public static final int FEATURES = 768;
+    public static final int ACTIVATION_LIMIT = 255;
+    public static final Path DEFAULT_PATH = Paths.get("src/input/network.nnue");
+
+    private static final int MAGIC = 0x45554E4E;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+    private static final int BOOTSTRAP_HIDDEN = 16;
+    private static final int BOOTSTRAP_PST_NEURON = 5;
+    private static final int BOOTSTRAP_PST_BIAS = 128;
+    private static final int BOOTSTRAP_PST_SCALE = 8;
+
+    private static Network defaultNetwork;
+
+    private final int hidden;
+    private final int outputDivisor;
+    private final int outputBias;
+    private final ShortBuffer featureWeights;
+    private final ShortBuffer featureBiases;
+    private final ShortBuffer outputWeights;
+
+    private Network(ByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a network file");
+        }
+        hidden = buffer.getInt(8);
+        outputDivisor = buffer.getInt(12);
+        outputBias = buffer.getInt(16);
+        long expected = HEADER_BYTES + 2L * hidden * (FEATURES + 3);
+        if (hidden <= 0 || outputDivisor <= 0 || buffer.capacity() != expected) {
+            throw new IOException("Network file has " + buffer.capacity() + " bytes, expected " + expected);
+        }
+
+        featureWeights = slice(buffer, HEADER_BYTES, FEATURES * hidden);
+        featureBiases = slice(buffer, HEADER_BYTES + 2 * FEATURES * hidden, hidden);
+        outputWeights = slice(buffer, HEADER_BYTES + 2 * (FEATURES + 1) * hidden, 2 * hidden);
+    }
+
+    private static ShortBuffer slice(ByteBuffer buffer, int offset, int shorts) {
+        return buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+                .position(offset).limit(offset + 2 * shorts)
+                .slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+    }
+
+    public static Network load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new Network(mapped);
+        }
+    }
+
+    // The network shipped with the game; a bootstrap network is written there the first time it is missing
+    public static synchronized Network loadDefault() throws IOException {
+        if (defaultNetwork == null) {
+            if (!Files.exists(DEFAULT_PATH)) {
+                Files.createDirectories(DEFAULT_PATH.toAbsolutePath().getParent());
+                writeBootstrap(DEFAULT_PATH);
+            }
+            defaultNetwork = load(DEFAULT_PATH);
+        }
+        return defaultNetwork;
+    }
+
+    public static void write(Path path, int hidden, int outputDivisor, int outputBias,
+                             short[] featureWeights, short[] featureBiases, short[] outputWeights) throws IOException {
+        if (featureWeights.length != FEATURES * hidden || featureBiases.length != hidden
+                || outputWeights.length != 2 * hidden) {
+            throw new IllegalArgumentException("Weight arrays do not match a hidden size of " + hidden);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 2 * hidden * (FEATURES + 3)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(hidden).putInt(outputDivisor).putInt(outputBias);
+        for (short weight : featureWeights) {
+            buffer.putShort(weight);
+        }
+        for (short bias : featureBiases) {
+            buffer.putShort(bias);
+        }
+        for (short weight : outputWeights) {
+            buffer.putShort(weight);
+        }
+        Files.write(path, buffer.array());
+    }
+
+    // Starting point before any training: one neuron counts each piece type and one carries the
+    // middlegame piece-square sum, so the network plays like the material and piece-square evaluation
+    public static void writeBootstrap(Path path) throws IOException {
+        int hidden = BOOTSTRAP_HIDDEN;
+        short[] featureWeights = new short[FEATURES * hidden];
+        short[] featureBiases = new short[hidden];
+        short[] outputWeights = new short[2 * hidden];
+
+        for (int relativePiece = 0; relativePiece < 12; relativePiece++) {
+            int type = relativePiece % 6;
+            boolean own = relativePiece < 6;
+            for (int sq = 0; sq < 64; sq++) {
+                int offset = (relativePiece * 64 + sq) * hidden;
+                if (own && type != EngineBoard.KING) {
+                    featureWeights[offset + type] = 1;
+                }
+                if (own) {
+                    // Features are seen from White's side, so the white tables apply directly
+                    int bonus = PieceSquareTables.POSITIONAL_MG[EngineBoard.pieceOf(EngineBoard.WHITE, type)][sq];
+                    featureWeights[offset + BOOTSTRAP_PST_NEURON] = (short) Math.round((float) bonus / BOOTSTRAP_PST_SCALE);
+                }
+            }
+        }
+        featureBiases[BOOTSTRAP_PST_NEURON] = BOOTSTRAP_PST_BIAS;
+        for (int type = EngineBoard.PAWN; type < EngineBoard.KING; type++) {
+            outputWeights[type] = (short) PieceSquareTables.MATERIAL[type];
+            outputWeights[hidden + type] = (short) -PieceSquareTables.MATERIAL[type];
+        }
+        outputWeights[BOOTSTRAP_PST_NEURON] = BOOTSTRAP_PST_SCALE;
+        outputWeights[hidden + BOOTSTRAP_PST_NEURON] = -BOOTSTRAP_PST_SCALE;
+        write(path, hidden, 1, 0, featureWeights, featureBiases, outputWeights);
+    }
+
+    // Index of a piece on a square as seen by one side: own pieces first, board flipped for Black
+    public static int featureIndex(int perspective, int piece, int sq) {
+        int relativePiece = EngineBoard.colorOf(piece) == perspective ? EngineBoard.typeOf(piece) : EngineBoard.typeOf(piece) + 6;
+        int relativeSquare = perspective == EngineBoard.WHITE ? sq : sq ^ 56;
+        return relativePiece * 64 + relativeSquare;
+    }
+
+    void addFeature(int[] accumulator, int feature, int sign) {
+        int offset = feature * hidden;
+        for (int i = 0; i < hidden; i++) {
+            accumulator[i] += sign * featureWeights.get(offset + i);
+        }
+    }
+
+    void resetAccumulator(int[] accumulator) {
+        for (int i = 0; i < hidden; i++) {
+            accumulator[i] = featureBiases.get(i);
+        }
+    }
+
+    // Clipped ReLU on both perspectives, side to move first, then the output layer
+    int output(int[] us, int[] them) {
+        int sum = outputBias;
+        for (int i = 0; i < hidden; i++) {
+            sum += clip(us[i]) * outputWeights.get(i) + clip(them[i]) * outputWeights.get(hidden + i);
+        }
+        return sum / outputDivisor;
+    }
+
+    private static int clip(int value) {
+        return Math.max(0, Math.min(ACTIVATION_LIMIT, value));
+    }
+
+    public int getHidden() {
+        return hidden;
+    }
+}
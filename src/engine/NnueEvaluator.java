@@ -0,0 +1,33 @@
+package engine;
+
+public class NnueEvaluator implements Evaluator {
+    private final Network network;
+
+    public NnueEvaluator(Network network) {
+        this.network = network;
+    }
+
+    @Override
+    public void prepare(EngineBoard board) {
+        Accumulator accumulator = new Accumulator(network);
+        accumulator.refresh(board);
+        board.setAccumulator(accumulator);
+    }
+
+    @Override
+    public int evaluate(EngineBoard board) {
+        Accumulator accumulator = board.getAccumulator();
+        if (accumulator == null || accumulator.getNetwork() != network) {
+            prepare(board);
+            accumulator = board.getAccumulator();
+        }
+        assert accumulator.matches(refreshed(board)) : "Incremental accumulator drifted from a full refresh";
+        return accumulator.evaluate(board.sideToMove());
+    }
+
+    private Accumulator refreshed(EngineBoard board) {
+        Accumulator accumulator = new Accumulator(network);
+        accumulator.refresh(board);
+        return accumulator;
+    }
+}
@@ -0,0 +1,129 @@
+package engine;
+
+import exceptions.InvalidCommandException;
+import util.FenUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Perft with the first plies split into fork/join tasks, each playing on its own copy of the board.
+// Below the split every task counts sequentially and memoizes subtree counts in the shared table.
+// Usage: ParallelPerft [depth] [maxThreads] [tableBits] [fen]   (tableBits 0 disables the table)
+// Runs with 1, 2, 4 ... maxThreads threads and reports the speed-up and efficiency against one thread.
+public class ParallelPerft {
+    public static final int SPLIT_PLIES = 2;
+    public static final int TABLE_BITS = 20;
+
+    private final ForkJoinPool pool;
+    private final PerftTable table;
+
+    // table may be null to count without memoizing
+    public ParallelPerft(ForkJoinPool pool, PerftTable table) {
+        this.pool = pool;
+        this.table = table;
+    }
+
+    public static void main(String[] args) throws InvalidCommandException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int tableBits = args.length > 2 ? Integer.parseInt(args[2]) : TABLE_BITS;
+        String fen = args.length > 3 ? String.join(" ", List.of(args).subList(3, args.length))
+                : "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w";
+        EngineBoard board = EngineBoard.fromBoard(FenUtil.parseBoard(fen), FenUtil.parseSideToMove(fen));
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(maxThreads);
+
+        long baseNanos = 0;
+        long expected = -1;
+        for (int threads : threadCounts) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                PerftTable table = tableBits > 0 ? new PerftTable(tableBits) : null;
+                long start = System.nanoTime();
+                long nodes = new ParallelPerft(pool, table).perft(board, depth);
+                long nanos = Math.max(1, System.nanoTime() - start);
+                if (threads == 1) {
+                    baseNanos = nanos;
+                    expected = nodes;
+                }
+                double speedUp = (double) baseNanos / nanos;
+                System.out.printf("%2d threads: perft(%d) = %d in %d ms, %d nodes/second, speed-up %.2fx, efficiency %.0f%%%n",
+                        threads, depth, nodes, nanos / 1_000_000, nodes * 1_000_000_000L / nanos,
+                        speedUp, 100 * speedUp / threads);
+                if (nodes != expected) {
+                    System.out.println("Mismatch with the single-threaded count");
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // The board is copied, so it is left as it was
+    public long perft(EngineBoard board, int depth) {
+        return pool.invoke(new PerftTask(board.copy(), depth, SPLIT_PLIES));
+    }
+
+    private long count(EngineBoard board, int depth, int[][] moves) {
+        if (depth >= 2 && table != null) {
+            long stored = table.probe(board.hash(), depth);
+            if (stored >= 0) {
+                return stored;
+            }
+        }
+        int[] buffer = moves[depth];
+        int count = board.generateMoves(buffer, 0, false);
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            if (!board.makeMove(buffer[i])) {
+                continue;
+            }
+            nodes += depth == 1 ? 1 : count(board, depth - 1, moves);
+            board.unmakeMove(buffer[i]);
+        }
+        if (depth >= 2 && table != null) {
+            table.store(board.hash(), depth, nodes);
+        }
+        return nodes;
+    }
+
+    @SuppressWarnings("serial")
+    private class PerftTask extends RecursiveTask<Long> {
+        private final EngineBoard board;
+        private final int depth;
+        private final int splitPlies;
+
+        PerftTask(EngineBoard board, int depth, int splitPlies) {
+            this.board = board;
+            this.depth = depth;
+            this.splitPlies = splitPlies;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= 1 || splitPlies == 0) {
+                return depth == 0 ? 1 : count(board, depth, new int[depth + 1][EngineBoard.MAX_MOVES]);
+            }
+            int[] moves = new int[EngineBoard.MAX_MOVES];
+            int count = board.generateMoves(moves, 0, false);
+            List<PerftTask> children = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                if (board.makeMove(moves[i])) {
+                    children.add(new PerftTask(board.copy(), depth - 1, splitPlies - 1));
+                    board.unmakeMove(moves[i]);
+                }
+            }
+            long nodes = 0;
+            for (PerftTask child : invokeAll(children)) {
+                nodes += child.join();
+            }
+            return nodes;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package engine;
+
+// Pawn-structure scores keyed by EngineBoard.pawnKey. Pawn structure changes only on pawn moves and
+// captures of pawns, so entries stay useful across moves and searches and the table is never cleared.
+public class PawnHashTable {
+    private final long[] keys;
+    private final int[] scores;
+    private final int mask;
+    private long probes;
+    private long hits;
+
+    public PawnHashTable(int sizeBits) {
+        keys = new long[1 << sizeBits];
+        scores = new int[1 << sizeBits];
+        mask = (1 << sizeBits) - 1;
+    }
+
+    // Packed pawn-structure score of the board, see PawnStructure
+    public int probe(EngineBoard board) {
+        long key = board.pawnKey();
+        int index = (int) key & mask;
+        probes++;
+        if (keys[index] == key) {
+            hits++;
+            return scores[index];
+        }
+        int score = PawnStructure.evaluate(board);
+        keys[index] = key;
+        scores[index] = score;
+        return score;
+    }
+
+    public long getProbes() {
+        return probes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public double getHitRate() {
+        return probes == 0 ? 0.0 : (double) hits / probes;
+    }
+}
@@ -0,0 +1,114 @@
+package engine;
+
+import static engine.EngineBoard.BLACK;
+import static engine.EngineBoard.PAWN;
+import static engine.EngineBoard.WHITE;
+
+// Pawn-only terms, white-relative. Middlegame and endgame scores are packed into one int so a
+// single table entry holds both: the endgame part in the low 16 bits, the middlegame part above.
+public final class PawnStructure {
+    static final int DOUBLED_MG = -10;
+    static final int DOUBLED_EG = -20;
+    static final int ISOLATED_MG = -10;
+    static final int ISOLATED_EG = -15;
+    // Indexed by how many ranks the pawn has advanced from its start square
+    static final int[] PASSED_MG = {0, 5, 10, 15, 25, 40, 60, 0};
+    static final int[] PASSED_EG = {0, 10, 20, 35, 55, 80, 110, 0};
+
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    // Squares in front of a pawn, on its file and both neighbouring files, that enemy pawns must not occupy
+    private static final long[][] PASSED_MASK = new long[2][64];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            FILES[file] = 0x0101010101010101L << file;
+        }
+        for (int file = 0; file < 8; file++) {
+            ADJACENT_FILES[file] = (file > 0 ? FILES[file - 1] : 0) | (file < 7 ? FILES[file + 1] : 0);
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            long span = FILES[sq & 7] | ADJACENT_FILES[sq & 7];
+            int rank = sq >>> 3;
+            long above = rank == 7 ? 0 : -1L << ((rank + 1) * 8);
+            long below = rank == 0 ? 0 : -1L >>> ((8 - rank) * 8);
+            PASSED_MASK[WHITE][sq] = span & above;
+            PASSED_MASK[BLACK][sq] = span & below;
+        }
+    }
+
+    private PawnStructure() {
+    }
+
+    public static int pack(int mg, int eg) {
+        return (mg << 16) + eg;
+    }
+
+    public static int mg(int packed) {
+        return (packed + 0x8000) >> 16;
+    }
+
+    public static int eg(int packed) {
+        return (short) packed;
+    }
+
+    public static int evaluate(EngineBoard board) {
+        int mg = 0;
+        int eg = 0;
+        for (int color = WHITE; color <= BLACK; color++) {
+            int sign = color == WHITE ? 1 : -1;
+            long own = board.bitboard(EngineBoard.pieceOf(color, PAWN));
+            long enemy = board.bitboard(EngineBoard.pieceOf(color ^ 1, PAWN));
+
+            int doubled = doubled(own);
+            int isolated = isolated(own);
+            mg += sign * (DOUBLED_MG * doubled + ISOLATED_MG * isolated);
+            eg += sign * (DOUBLED_EG * doubled + ISOLATED_EG * isolated);
+
+            long passed = passed(own, enemy, color);
+            while (passed != 0) {
+                int advanced = advanced(Long.numberOfTrailingZeros(passed), color);
+                passed &= passed - 1;
+                mg += sign * PASSED_MG[advanced];
+                eg += sign * PASSED_EG[advanced];
+            }
+        }
+        return pack(mg, eg);
+    }
+
+    // Extra pawns on files that already hold one
+    static int doubled(long pawns) {
+        int count = 0;
+        for (int file = 0; file < 8; file++) {
+            count += Math.max(0, Long.bitCount(pawns & FILES[file]) - 1);
+        }
+        return count;
+    }
+
+    static int isolated(long pawns) {
+        int count = 0;
+        for (int file = 0; file < 8; file++) {
+            if ((pawns & ADJACENT_FILES[file]) == 0) {
+                count += Long.bitCount(pawns & FILES[file]);
+            }
+        }
+        return count;
+    }
+
+    static long passed(long own, long enemy, int color) {
+        long passed = 0;
+        long pawns = own;
+        while (pawns != 0) {
+            int sq = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            if ((enemy & PASSED_MASK[color][sq]) == 0) {
+                passed |= 1L << sq;
+            }
+        }
+        return passed;
+    }
+
+    static int advanced(int sq, int color) {
+        return color == WHITE ? (sq >>> 3) - 1 : 6 - (sq >>> 3);
+    }
+}
@@ -0,0 +1,41 @@
+package engine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Subtree counts shared by all perft threads, keyed by position hash and remaining depth.
+// Each slot holds the count and depth packed in one word plus the hash xor that word, so a slot
+// written by two threads at once no longer matches its key and is read as a miss instead of a wrong count.
+public class PerftTable {
+    private static final long DEPTH_MASK = 0xFF;
+
+    private final AtomicLongArray keys;
+    private final AtomicLongArray values;
+    private final int mask;
+
+    public PerftTable(int sizeBits) {
+        keys = new AtomicLongArray(1 << sizeBits);
+        values = new AtomicLongArray(1 << sizeBits);
+        mask = (1 << sizeBits) - 1;
+    }
+
+    // Count stored for the position at this depth, or -1
+    public long probe(long hash, int depth) {
+        int index = index(hash, depth);
+        long value = values.get(index);
+        if ((keys.get(index) ^ value) != hash || (value & DEPTH_MASK) != depth) {
+            return -1;
+        }
+        return value >>> 8;
+    }
+
+    public void store(long hash, int depth, long count) {
+        int index = index(hash, depth);
+        long value = count << 8 | depth;
+        values.set(index, value);
+        keys.set(index, hash ^ value);
+    }
+
+    private int index(long hash, int depth) {
+        return (int) (hash ^ (hash >>> 32) ^ depth * 0x9E3779B9L) & mask;
+    }
+}
@@ -0,0 +1,128 @@
+package engine;
+
+import strategy.scoring.PieceCaptureScoringStrategy;
+
+public final class PieceSquareTables {
+    private static final String PIECE_TYPES = "PNBRQK";
+
+    // Centipawn values, ten times the capture points so the engine and the score board agree
+    public static final int[] MATERIAL = new int[6];
+
+    // Game phase weight of each piece type; a full set of pieces adds up to MAX_PHASE
+    public static final int[] PHASE_WEIGHT = {0, 1, 1, 2, 4, 0};
+    public static final int MAX_PHASE = 24;
+
+    // Tables are written from White's side with rank 8 on top, so White looks them up with sq ^ 56
+    private static final int[][] MIDDLEGAME = {
+        {
+              0,   0,   0,   0,   0,   0,   0,   0,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             10,  10,  20,  30,  30,  20,  10,  10,
+              5,   5,  10,  25,  25,  10,   5,   5,
+              0,   0,   0,  20,  20,   0,   0,   0,
+              5,  -5, -10,   0,   0, -10,  -5,   5,
+              5,  10,  10, -20, -20,  10,  10,   5,
+              0,   0,   0,   0,   0,   0,   0,   0
+        },
+        {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20,   0,   0,   0,   0, -20, -40,
+            -30,   0,  10,  15,  15,  10,   0, -30,
+            -30,   5,  15,  20,  20,  15,   5, -30,
+            -30,   0,  15,  20,  20,  15,   0, -30,
+            -30,   5,  10,  15,  15,  10,   5, -30,
+            -40, -20,   0,   5,   5,   0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+        },
+        {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,  10,  10,   5,   0, -10,
+            -10,   5,   5,  10,  10,   5,   5, -10,
+            -10,   0,  10,  10,  10,  10,   0, -10,
+            -10,  10,  10,  10,  10,  10,  10, -10,
+            -10,   5,   0,   0,   0,   0,   5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+        },
+        {
+              0,   0,   0,   0,   0,   0,   0,   0,
+              5,  10,  10,  10,  10,  10,  10,   5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+              0,   0,   0,   5,   5,   0,   0,   0
+        },
+        {
+            -20, -10, -10,  -5,  -5, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,   5,   5,   5,   0, -10,
+             -5,   0,   5,   5,   5,   5,   0,  -5,
+              0,   0,   5,   5,   5,   5,   0,  -5,
+            -10,   5,   5,   5,   5,   5,   0, -10,
+            -10,   0,   5,   0,   0,   0,   0, -10,
+            -20, -10, -10,  -5,  -5, -10, -10, -20
+        },
+        {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+             20,  20,   0,   0,   0,   0,  20,  20,
+             20,  30,  10,   0,   0,  10,  30,  20
+        }
+    };
+
+    // Pawns gain value as they advance and the king belongs in the centre once the queens are gone;
+    // the other pieces keep their middlegame tables
+    private static final int[][] ENDGAME = {
+        {
+              0,   0,   0,   0,   0,   0,   0,   0,
+             80,  80,  80,  80,  80,  80,  80,  80,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             30,  30,  30,  30,  30,  30,  30,  30,
+             15,  15,  15,  15,  15,  15,  15,  15,
+              5,   5,   5,   5,   5,   5,   5,   5,
+              0,   0,   0,   0,   0,   0,   0,   0,
+              0,   0,   0,   0,   0,   0,   0,   0
+        },
+        MIDDLEGAME[1],
+        MIDDLEGAME[2],
+        MIDDLEGAME[3],
+        MIDDLEGAME[4],
+        {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10,   0,   0, -10, -20, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -30,   0,   0,   0,   0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+        }
+    };
+
+    // Positional bonus per piece code and square, from the owner's point of view
+    public static final int[][] POSITIONAL_MG = new int[12][64];
+    public static final int[][] POSITIONAL_EG = new int[12][64];
+
+    static {
+        for (int type = 0; type < 6; type++) {
+            MATERIAL[type] = PieceCaptureScoringStrategy.valueOf(PIECE_TYPES.charAt(type)) * 10;
+            for (int sq = 0; sq < 64; sq++) {
+                int white = EngineBoard.pieceOf(EngineBoard.WHITE, type);
+                int black = EngineBoard.pieceOf(EngineBoard.BLACK, type);
+                POSITIONAL_MG[white][sq] = MIDDLEGAME[type][sq ^ 56];
+                POSITIONAL_MG[black][sq] = MIDDLEGAME[type][sq];
+                POSITIONAL_EG[white][sq] = ENDGAME[type][sq ^ 56];
+                POSITIONAL_EG[black][sq] = ENDGAME[type][sq];
+            }
+        }
+    }
+
+    private PieceSquareTables() {
+    }
+}
@@ -0,0 +1,74 @@
+package engine;
+
+import model.Board;
+import model.Colors;
+import model.Game;
+import model.Move;
+
+import java.util.List;
+import java.util.concurrent.Future;
+
+public class Ponderer {
+    private final EngineExecutor executor;
+
+    private Future<SearchResult> pending;
+    private long ponderHash;
+
+    public Ponderer(EngineExecutor executor) {
+        this.executor = executor;
+    }
+
+    // Starts searching the position after the predicted reply (the second move of the principal variation)
+    public synchronized void start(Board board, Colors opponentColor, List<Move> principalVariation, SearchLimits limits) {
+        start(EngineBoard.fromBoard(board, opponentColor), principalVariation, limits);
+    }
+
+    // Same, from a game whose opponent is to move, keeping the game's positions for repetition checks
+    public synchronized void start(Game game, List<Move> principalVariation, SearchLimits limits) {
+        start(EngineBoard.fromGame(game), principalVariation, limits);
+    }
+
+    private void start(EngineBoard ponderBoard, List<Move> principalVariation, SearchLimits limits) {
+        cancel();
+        if (principalVariation == null || principalVariation.size() < 2) {
+            return;
+        }
+
+        Move predicted = principalVariation.get(1);
+        int move = ponderBoard.findLegalMove(Moves.square(predicted.getFrom()), Moves.square(predicted.getTo()));
+        if (move == Moves.NONE || !ponderBoard.makeMove(move)) {
+            return;
+        }
+
+        ponderHash = ponderBoard.hash();
+        pending = executor.submit(ponderBoard, limits, null);
+    }
+
+    // Hands over the pondered search when the position on the board is the one that was predicted,
+    // otherwise discards the ponder search and returns null. Never blocks on the search itself.
+    public synchronized Future<SearchResult> takeResult(Board board, Colors sideToMove) {
+        if (pending == null) {
+            return null;
+        }
+        if (EngineBoard.fromBoard(board, sideToMove).hash() != ponderHash) {
+            cancel();
+            return null;
+        }
+
+        Future<SearchResult> pondered = pending;
+        pending = null;
+        return pondered;
+    }
+
+    public synchronized void cancel() {
+        if (pending == null) {
+            return;
+        }
+        pending.cancel(false);
+        pending = null;
+    }
+
+    public synchronized boolean isPondering() {
+        return pending != null && !pending.isDone();
+    }
+}
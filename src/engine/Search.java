@@ -0,0 +1,450 @@
+package engine;
+
+import model.Colors;
+import model.Move;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class Search {
+    public static final int INFINITY = 32000;
+    public static final int MATE = 31000;
+    public static final int MAX_PLY = 64;
+    private static final int MATE_BOUND = MATE - MAX_PLY;
+
+    private static final int TT_MOVE_SCORE = 1_000_000;
+    private static final int CAPTURE_SCORE = 100_000;
+    private static final int PROMOTION_SCORE = 90_000;
+    private static final int FIRST_KILLER_SCORE = 80_000;
+    private static final int SECOND_KILLER_SCORE = 70_000;
+    private static final int HISTORY_LIMIT = 60_000;
+
+    private static final int ASPIRATION_MIN_DEPTH = 4;
+    private static final int ASPIRATION_WINDOW = 30;
+    private static final int ASPIRATION_MAX_WINDOW = 600;
+
+    private final TranspositionTable table;
+    private final Evaluator evaluator;
+    private Tablebases tablebases;
+    private final int[][] moveBuffers = new int[MAX_PLY + 1][EngineBoard.MAX_MOVES];
+    private final int[][] scoreBuffers = new int[MAX_PLY + 1][EngineBoard.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[][] history = new int[12][64];
+    private final int[][] pvTable = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+
+    private EngineBoard board;
+    private SearchLimits limits;
+    private AtomicBoolean cancelled;
+    private long nodes;
+    private int rootBestMove;
+    private boolean stopped;
+
+    public Search(TranspositionTable table, Evaluator evaluator) {
+        this.table = table;
+        this.evaluator = evaluator;
+    }
+
+    public void useTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    public void clearHistory() {
+        for (int[] row : history) {
+            Arrays.fill(row, 0);
+        }
+    }
+
+    public SearchResult search(EngineBoard board, SearchLimits limits, AtomicBoolean cancelled) {
+        this.board = board;
+        evaluator.prepare(board);
+        this.limits = limits;
+        this.cancelled = cancelled;
+        nodes = 0;
+        stopped = false;
+        rootBestMove = Moves.NONE;
+        for (int[] killer : killers) {
+            killer[0] = Moves.NONE;
+            killer[1] = Moves.NONE;
+        }
+        for (int[] row : history) {
+            for (int sq = 0; sq < 64; sq++) {
+                row[sq] /= 2;
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        Colors rootColor = EngineBoard.toColors(board.sideToMove());
+        int bestMove = Moves.NONE;
+        int bestScore = 0;
+        int completedDepth = 0;
+        List<Move> principalVariation = new ArrayList<>();
+
+        for (int depth = 1; depth <= limits.getMaxDepth(); depth++) {
+            int score = aspirationSearch(depth, bestScore);
+            if (stopped) {
+                break;
+            }
+            bestMove = rootBestMove;
+            bestScore = score;
+            completedDepth = depth;
+            principalVariation = extractPrincipalVariation(rootColor);
+            if (Math.abs(score) >= MATE_BOUND) {
+                break;
+            }
+        }
+
+        if (bestMove == Moves.NONE) {
+            bestMove = rootBestMove;
+        }
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes,
+                System.currentTimeMillis() - start, principalVariation);
+    }
+
+    // Full-window quiescence score from the side to move's point of view, without the main search
+    public int quiescence(EngineBoard board) {
+        this.board = board;
+        evaluator.prepare(board);
+        limits = new SearchLimits(1, 0);
+        cancelled = new AtomicBoolean();
+        nodes = 0;
+        stopped = false;
+        return quiescence(0, -INFINITY, INFINITY);
+    }
+
+    // Searches a narrow window around the previous score, widening the failing side until the score fits
+    private int aspirationSearch(int depth, int previousScore) {
+        if (depth < ASPIRATION_MIN_DEPTH || Math.abs(previousScore) >= MATE_BOUND) {
+            return alphaBeta(depth, 0, -INFINITY, INFINITY, false);
+        }
+
+        int delta = ASPIRATION_WINDOW;
+        int alpha = previousScore - delta;
+        int beta = previousScore + delta;
+        while (true) {
+            int score = alphaBeta(depth, 0, alpha, beta, false);
+            if (stopped) {
+                return score;
+            }
+            if (score > alpha && score < beta) {
+                return score;
+            }
+            delta *= 2;
+            if (delta > ASPIRATION_MAX_WINDOW) {
+                alpha = -INFINITY;
+                beta = INFINITY;
+            } else if (score <= alpha) {
+                alpha = Math.max(score - delta, -INFINITY);
+            } else {
+                beta = Math.min(score + delta, INFINITY);
+            }
+        }
+    }
+
+    private List<Move> extractPrincipalVariation(Colors rootColor) {
+        List<Move> principalVariation = new ArrayList<>();
+        Colors color = rootColor;
+        for (int i = 0; i < pvLength[0]; i++) {
+            principalVariation.add(Moves.toModel(pvTable[0][i], color));
+            color = color == Colors.WHITE ? Colors.BLACK : Colors.WHITE;
+        }
+        return principalVariation;
+    }
+
+    private int alphaBeta(int depth, int ply, int alpha, int beta, boolean allowNull) {
+        pvLength[ply] = 0;
+        if (depth <= 0) {
+            return quiescence(ply, alpha, beta);
+        }
+        if (++nodes >= limits.getMaxNodes() || ((nodes & 1023) == 0 && cancelled.get())) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        boolean root = ply == 0;
+        boolean pvNode = beta - alpha > 1;
+        if (!root) {
+            if (board.isRepetition()) {
+                return 0;
+            }
+            if (ply >= MAX_PLY) {
+                return evaluate();
+            }
+            if (tablebases != null) {
+                int score = tablebases.probe(board, ply);
+                if (score != Tablebases.NONE) {
+                    return score;
+                }
+            }
+        }
+
+        long hash = board.hash();
+        long entry = table.probe(hash);
+        int ttMove = Moves.NONE;
+        if (entry != 0) {
+            ttMove = TranspositionTable.move(entry);
+            if (!pvNode && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        boolean inCheck = board.inCheck();
+        if (inCheck) {
+            depth++;
+        }
+
+        // Null-move pruning; disabled with only king and pawns left, where zugzwang makes passing unsound
+        if (allowNull && !pvNode && !inCheck && depth >= 3
+                && board.hasNonPawnMaterial(board.sideToMove()) && evaluate(beta - 1, beta) >= beta) {
+            int reduction = depth > 6 ? 3 : 2;
+            board.makeNullMove();
+            int score = -alphaBeta(depth - 1 - reduction, ply + 1, -beta, -beta + 1, false);
+            board.unmakeNullMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score >= MATE_BOUND ? beta : score;
+            }
+        }
+
+        int[] moves = moveBuffers[ply];
+        int[] scores = scoreBuffers[ply];
+        int count = board.generateMoves(moves, 0, false);
+        scoreMoves(moves, scores, count, ttMove, ply);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Moves.NONE;
+        int legalMoves = 0;
+
+        for (int i = 0; i < count; i++) {
+            int move = pickMove(moves, scores, i, count);
+            boolean quiet = !board.isCapture(move) && Moves.promotion(move) == 0;
+            if (!board.makeMove(move)) {
+                continue;
+            }
+            legalMoves++;
+            boolean givesCheck = board.inCheck();
+
+            // Late move reductions: quiet moves ordered late are searched shallower and re-searched on fail-high
+            int reduction = 0;
+            if (quiet && legalMoves > 3 && depth >= 3 && !inCheck && !givesCheck
+                    && move != killers[ply][0] && move != killers[ply][1]) {
+                reduction = legalMoves > 6 && depth > 5 ? 2 : 1;
+            }
+
+            // Principal variation search: only the first move gets the full window, the rest are
+            // proven with a null window and re-searched when they unexpectedly beat alpha
+            int score;
+            if (legalMoves == 1) {
+                score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha, true);
+            } else {
+                score = -alphaBeta(depth - 1 - reduction, ply + 1, -alpha - 1, -alpha, true);
+                if (reduction > 0 && score > alpha && !stopped) {
+                    score = -alphaBeta(depth - 1, ply + 1, -alpha - 1, -alpha, true);
+                }
+                if (pvNode && score > alpha && score < beta && !stopped) {
+                    score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha, true);
+                }
+            }
+            board.unmakeMove(move);
+
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(move, ply);
+                    if (root) {
+                        rootBestMove = move;
+                    }
+                    if (score >= beta) {
+                        if (quiet) {
+                            recordQuietCutoff(move, depth, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (legalMoves == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.LOWER
+                : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(hash, bestMove, toTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    private void updatePrincipalVariation(int move, int ply) {
+        pvTable[ply][0] = move;
+        System.arraycopy(pvTable[ply + 1], 0, pvTable[ply], 1, pvLength[ply + 1]);
+        pvLength[ply] = pvLength[ply + 1] + 1;
+    }
+
+    private int quiescence(int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        if (++nodes >= limits.getMaxNodes() || ((nodes & 1023) == 0 && cancelled.get())) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        if (tablebases != null) {
+            int score = tablebases.probe(board, ply);
+            if (score != Tablebases.NONE) {
+                return score;
+            }
+        }
+
+        int standPat = evaluate(alpha, beta);
+        if (ply >= MAX_PLY || standPat >= beta) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        int[] moves = moveBuffers[ply];
+        int[] scores = scoreBuffers[ply];
+        int count = board.generateMoves(moves, 0, true);
+        scoreMoves(moves, scores, count, Moves.NONE, ply);
+
+        int bestScore = standPat;
+        for (int i = 0; i < count; i++) {
+            int move = pickMove(moves, scores, i, count);
+            // The rest are captures that lose material by exchange, which cannot raise the stand-pat score
+            if (scores[i] < 0) {
+                break;
+            }
+            if (!board.makeMove(move)) {
+                continue;
+            }
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            board.unmakeMove(move);
+
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    private int evaluate() {
+        return evaluator.evaluate(board);
+    }
+
+    private int evaluate(int alpha, int beta) {
+        return evaluator.evaluate(board, alpha, beta);
+    }
+
+    private void scoreMoves(int[] moves, int[] scores, int count, int ttMove, int ply) {
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int victim = board.pieceAt(Moves.to(move));
+            if (move == ttMove) {
+                scores[i] = TT_MOVE_SCORE;
+            } else if (victim != EngineBoard.EMPTY) {
+                int attacker = EngineBoard.typeOf(board.pieceAt(Moves.from(move)));
+                int mvvLva = PieceSquareTables.MATERIAL[EngineBoard.typeOf(victim)] * 10 - attacker;
+                // Only a capture by a more valuable piece can lose material; those that do go after the quiet moves
+                boolean losing = PieceSquareTables.MATERIAL[attacker] > PieceSquareTables.MATERIAL[EngineBoard.typeOf(victim)]
+                        && board.see(move) < 0;
+                scores[i] = losing ? mvvLva - CAPTURE_SCORE : CAPTURE_SCORE + mvvLva;
+            } else if (Moves.promotion(move) != 0) {
+                scores[i] = PROMOTION_SCORE;
+            } else if (move == killers[ply][0]) {
+                scores[i] = FIRST_KILLER_SCORE;
+            } else if (move == killers[ply][1]) {
+                scores[i] = SECOND_KILLER_SCORE;
+            } else {
+                scores[i] = history[board.pieceAt(Moves.from(move))][Moves.to(move)];
+            }
+        }
+    }
+
+    private int pickMove(int[] moves, int[] scores, int index, int count) {
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            int move = moves[index];
+            moves[index] = moves[best];
+            moves[best] = move;
+            int score = scores[index];
+            scores[index] = scores[best];
+            scores[best] = score;
+        }
+        return moves[index];
+    }
+
+    private void recordQuietCutoff(int move, int depth, int ply) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] row = history[board.pieceAt(Moves.from(move))];
+        int to = Moves.to(move);
+        row[to] += depth * depth;
+        if (row[to] > HISTORY_LIMIT) {
+            for (int[] pieceHistory : history) {
+                for (int sq = 0; sq < 64; sq++) {
+                    pieceHistory[sq] /= 2;
+                }
+            }
+        }
+    }
+
+    private static int toTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score + ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score - ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+}
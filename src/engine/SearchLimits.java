@@ -0,0 +1,25 @@
+package engine;
+
+import model.Difficulty;
+
+public class SearchLimits {
+    private final int maxDepth;
+    private final long maxNodes;
+
+    public SearchLimits(int maxDepth, long maxNodes) {
+        this.maxDepth = Math.max(1, Math.min(maxDepth, Search.MAX_PLY - 1));
+        this.maxNodes = maxNodes > 0 ? maxNodes : Long.MAX_VALUE;
+    }
+
+    public static SearchLimits of(Difficulty difficulty) {
+        return new SearchLimits(difficulty.getMaxDepth(), difficulty.getMaxNodes());
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+}
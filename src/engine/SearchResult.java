@@ -0,0 +1,65 @@
+package engine;
+
+import model.Move;
+import model.Position;
+
+import java.util.List;
+
+public class SearchResult {
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedMillis;
+    private final List<Move> principalVariation;
+
+    public SearchResult(int bestMove, int score, int depth, long nodes, long elapsedMillis,
+                        List<Move> principalVariation) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedMillis = elapsedMillis;
+        this.principalVariation = principalVariation;
+    }
+
+    public boolean hasMove() {
+        return bestMove != Moves.NONE;
+    }
+
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    public Position getFrom() {
+        return Moves.fromPosition(bestMove);
+    }
+
+    public Position getTo() {
+        return Moves.toPosition(bestMove);
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public List<Move> getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    public String toString() {
+        return "depth " + depth + " score " + score + " nodes " + nodes + " pv " + principalVariation;
+    }
+}
@@ -0,0 +1,58 @@
+package engine;
+
+import model.Board;
+import model.Colors;
+import model.Move;
+import model.Position;
+import pieces.Piece;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Static exchange questions about a game board, answered on one EngineBoard built from it
+public final class StaticExchange {
+    // Engine material is PieceCaptureScoringStrategy points times ten
+    private static final int SCALE = 10;
+
+    private StaticExchange() {
+    }
+
+    // Material the mover wins if both sides keep recapturing on the destination square, in the same points
+    // as PieceCaptureScoringStrategy (negative when the move loses material). The board is not changed.
+    public static int see(Board board, Position from, Position to) {
+        Piece piece = board.getPieceAt(from);
+        if (piece == null) {
+            return 0;
+        }
+        EngineBoard engineBoard = EngineBoard.fromBoard(board, piece.getColor());
+        int promotion = piece.type() == 'P' && (to.getY() == 8 || to.getY() == 1) ? EngineBoard.QUEEN : 0;
+        return engineBoard.see(Moves.encode(Moves.square(from), Moves.square(to), promotion)) / SCALE;
+    }
+
+    public static int see(Board board, Move move) {
+        return see(board, move.getFrom(), move.getTo());
+    }
+
+    // Pieces of the given color that the opponent can capture with a winning exchange
+    public static List<Position> hangingPieces(Board board, Colors color) {
+        EngineBoard engineBoard = EngineBoard.fromBoard(board, color == Colors.WHITE ? Colors.BLACK : Colors.WHITE);
+        int us = color == Colors.WHITE ? EngineBoard.WHITE : EngineBoard.BLACK;
+        long occupied = engineBoard.occupied();
+        List<Position> hanging = new ArrayList<>();
+        long targets = engineBoard.occupancy(us) & ~engineBoard.bitboard(EngineBoard.pieceOf(us, EngineBoard.KING));
+        while (targets != 0) {
+            int sq = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            long attackers = engineBoard.attackersTo(sq, occupied) & engineBoard.occupancy(us ^ 1);
+            while (attackers != 0) {
+                int attacker = Long.numberOfTrailingZeros(attackers);
+                attackers &= attackers - 1;
+                if (engineBoard.see(Moves.encode(attacker, sq, 0)) > 0) {
+                    hanging.add(Moves.position(sq));
+                    break;
+                }
+            }
+        }
+        return hanging;
+    }
+}
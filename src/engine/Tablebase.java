@@ -0,0 +1,169 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static engine.EngineBoard.PAWN;
+
+// Distance-to-mate table for one ending where the strong side has a king and a few pieces and the other
+// side a bare king. Positions are stored with the strong side as White. Piece 0 is the white king,
+// piece 1 the black king, then the white pieces in the order of the table's types.
+// One signed byte per position, side to move first: 0 is a draw (or an illegal position), n > 0 means the
+// side to move mates after n - 1 plies and n < 0 means it is mated after -n - 1 plies.
+// File layout, little-endian: int magic, int entry count, then the entries.
+public class Tablebase {
+    private static final int MAGIC = 0x31425454;
+    private static final int HEADER_BYTES = 8;
+
+    // Without pawns the board is turned so the white king sits in the a1-d1-d4 triangle
+    private static final int[] TRIANGLE = new int[64];
+    private static final int[] TRIANGLE_SQUARES = new int[10];
+    private static final int[] CANONICAL = new int[64];
+    private static final int[][] TRANSFORM = new int[8][64];
+
+    static {
+        int next = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            int file = sq & 7;
+            int rank = sq >>> 3;
+            TRIANGLE[sq] = -1;
+            if (file <= 3 && rank <= file) {
+                TRIANGLE[sq] = next;
+                TRIANGLE_SQUARES[next++] = sq;
+            }
+            for (int t = 0; t < 8; t++) {
+                int f = (t & 1) != 0 ? 7 - file : file;
+                int r = (t & 2) != 0 ? 7 - rank : rank;
+                TRANSFORM[t][sq] = (t & 4) != 0 ? f * 8 + r : r * 8 + f;
+            }
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            for (int t = 0; t < 8; t++) {
+                if (TRIANGLE[TRANSFORM[t][sq]] >= 0) {
+                    CANONICAL[sq] = t;
+                    break;
+                }
+            }
+        }
+    }
+
+    private final String name;
+    private final int[] types;
+    private final boolean pawns;
+    private final int size;
+    private ByteBuffer entries;
+
+    public Tablebase(String name, int... types) {
+        this.name = name;
+        this.types = types;
+        boolean hasPawn = false;
+        for (int type : types) {
+            hasPawn |= type == PAWN;
+        }
+        this.pawns = hasPawn;
+        int count = 2 * (pawns ? 64 : 10);
+        for (int i = 0; i <= types.length; i++) {
+            count *= 64;
+        }
+        this.size = count;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPieceCount() {
+        return types.length + 2;
+    }
+
+    int type(int piece) {
+        return piece == 0 || piece == 1 ? EngineBoard.KING : types[piece - 2];
+    }
+
+    boolean hasPawns() {
+        return pawns;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Index of a position after turning the board into its canonical orientation; squares is left unchanged.
+    // With a pawn the board is only mirrored, so that the pawn (the first white piece) is on files a-d.
+    int index(int sideToMove, int[] squares) {
+        int t = pawns ? ((squares[2] & 7) > 3 ? 1 : 0) : CANONICAL[squares[0]];
+        if (!pawns && isDiagonal(TRANSFORM[t][squares[0]])) {
+            // Mirroring in the a1-h8 diagonal keeps the king in place, so the next piece off the diagonal
+            // decides; otherwise two indices would describe the same position
+            for (int i = 1; i < squares.length; i++) {
+                int sq = TRANSFORM[t][squares[i]];
+                if (!isDiagonal(sq)) {
+                    if ((sq >>> 3) > (sq & 7)) {
+                        t ^= 4;
+                    }
+                    break;
+                }
+            }
+        }
+        int index = sideToMove;
+        index = pawns ? index * 64 + TRANSFORM[t][squares[0]] : index * 10 + TRIANGLE[TRANSFORM[t][squares[0]]];
+        for (int i = 1; i < squares.length; i++) {
+            index = index * 64 + TRANSFORM[t][squares[i]];
+        }
+        return index;
+    }
+
+    private static boolean isDiagonal(int sq) {
+        return (sq >>> 3) == (sq & 7);
+    }
+
+    // Inverse of index for canonical positions; returns the side to move
+    int decode(int index, int[] squares) {
+        for (int i = squares.length - 1; i >= 1; i--) {
+            squares[i] = index & 63;
+            index >>>= 6;
+        }
+        if (pawns) {
+            squares[0] = index & 63;
+            return index >>> 6;
+        }
+        squares[0] = TRIANGLE_SQUARES[index % 10];
+        return index / 10;
+    }
+
+    public int probe(int sideToMove, int[] squares) {
+        return entries.get(HEADER_BYTES + index(sideToMove, squares));
+    }
+
+    // Maps the file read-only; every engine probing the table shares the same pages
+    public void load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.size() != HEADER_BYTES + (long) size || mapped.getInt(0) != MAGIC || mapped.getInt(4) != size) {
+                throw new IOException("Not a " + name + " table: " + path);
+            }
+            entries = mapped;
+        }
+    }
+
+    public void write(Path path, byte[] values) throws IOException {
+        if (values.length != size) {
+            throw new IllegalArgumentException(name + " has " + size + " entries, got " + values.length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(size).put(values);
+        Files.write(path, buffer.array());
+    }
+
+    // Serves entries built in memory, so the generator can probe a table before it has been written
+    void use(byte[] values) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(size).put(values);
+        entries = buffer;
+    }
+}
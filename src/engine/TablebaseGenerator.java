@@ -0,0 +1,316 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static engine.EngineBoard.BLACK;
+import static engine.EngineBoard.KING;
+import static engine.EngineBoard.PAWN;
+import static engine.EngineBoard.WHITE;
+
+// Builds a table by retrograde analysis: starting from the checkmates, every position one move before a
+// loss is a win, and a position whose moves all reach wins is a loss one ply further out. Whatever is left
+// once no new positions resolve is a draw. The bare king capturing a piece always leaves a drawn ending,
+// and a promotion is looked up in the queen table, so those moves leave the table without being searched.
+// Usage: TablebaseGenerator [directory]
+public class TablebaseGenerator {
+    private static final byte UNRESOLVED = 0;
+    private static final byte ILLEGAL = 1;
+    private static final byte RESOLVED = 2;
+    private static final int MAX_PLIES = 126;
+
+    private final Tablebase table;
+    private final Tablebase queenTable;
+    private final byte[] values;
+    private final byte[] state;
+    private final int[] squares;
+    private final int[] other;
+    private final int[] successors = new int[EngineBoard.MAX_MOVES];
+    private final int[] predecessors = new int[EngineBoard.MAX_MOVES];
+
+    // Filled in by moves(): legal moves of the side to move, and the best outcome of those leaving the table
+    private int legalMoves;
+    private boolean exitDraw;
+    private int exitWin;
+
+    // queenTable answers promotions and is only needed for tables with a pawn
+    public TablebaseGenerator(Tablebase table, Tablebase queenTable) {
+        this.table = table;
+        this.queenTable = queenTable;
+        values = new byte[table.size()];
+        state = new byte[table.size()];
+        squares = new int[table.getPieceCount()];
+        other = new int[table.getPieceCount()];
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = args.length > 0 ? Paths.get(args[0]) : Tablebases.DEFAULT_DIRECTORY;
+        Files.createDirectories(directory);
+        for (Tablebase table : Tablebases.standardTables()) {
+            long start = System.currentTimeMillis();
+            Path path = Tablebases.generate(directory, table);
+            System.out.printf("%s: %d entries in %d ms -> %s%n", table.getName(), table.size(),
+                    System.currentTimeMillis() - start, path);
+        }
+    }
+
+    public byte[] generate() {
+        IntList[] exitWins = new IntList[MAX_PLIES + 2];
+        IntList losses = new IntList();
+        int lastExitWin = 0;
+
+        for (int index = 0; index < values.length; index++) {
+            int sideToMove = table.decode(index, squares);
+            if (table.index(sideToMove, squares) != index || !isLegal(sideToMove, squares)) {
+                state[index] = ILLEGAL;
+                continue;
+            }
+            moves(sideToMove, squares, successors);
+            if (legalMoves == 0) {
+                state[index] = RESOLVED;
+                if (sideToMove == BLACK && attackedByWhite(squares[1], occupancy(squares), squares, -1)) {
+                    values[index] = -1;
+                    losses.add(index);
+                }
+            } else if (exitWin > 0) {
+                if (exitWins[exitWin] == null) {
+                    exitWins[exitWin] = new IntList();
+                }
+                exitWins[exitWin].add(index);
+                lastExitWin = Math.max(lastExitWin, exitWin);
+            }
+        }
+
+        for (int ply = 0; ply < MAX_PLIES; ply += 2) {
+            IntList wins = new IntList();
+            for (int i = 0; i < losses.size; i++) {
+                int count = predecessors(losses.items[i]);
+                for (int j = 0; j < count; j++) {
+                    int index = predecessors[j];
+                    if (state[index] == UNRESOLVED) {
+                        resolve(index, ply + 2);
+                        wins.add(index);
+                    }
+                }
+            }
+            if (exitWins[ply + 1] != null) {
+                for (int i = 0; i < exitWins[ply + 1].size; i++) {
+                    int index = exitWins[ply + 1].items[i];
+                    if (state[index] == UNRESOLVED) {
+                        resolve(index, ply + 2);
+                        wins.add(index);
+                    }
+                }
+            }
+
+            IntList next = new IntList();
+            for (int i = 0; i < wins.size; i++) {
+                int count = predecessors(wins.items[i]);
+                for (int j = 0; j < count; j++) {
+                    int index = predecessors[j];
+                    if (state[index] == UNRESOLVED && allMovesLose(index)) {
+                        resolve(index, -(ply + 3));
+                        next.add(index);
+                    }
+                }
+            }
+            if (wins.size == 0 && next.size == 0 && ply + 1 >= lastExitWin) {
+                break;
+            }
+            losses = next;
+        }
+        return values;
+    }
+
+    private void resolve(int index, int value) {
+        state[index] = RESOLVED;
+        values[index] = (byte) value;
+    }
+
+    private boolean allMovesLose(int index) {
+        int sideToMove = table.decode(index, other);
+        int count = moves(sideToMove, other, successors);
+        if (exitDraw || exitWin > 0) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            int successor = successors[i];
+            if (state[successor] != RESOLVED || values[successor] <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isLegal(int sideToMove, int[] squares) {
+        long occupied = occupancy(squares);
+        if (Long.bitCount(occupied) != squares.length || (Attacks.KING[squares[0]] & (1L << squares[1])) != 0) {
+            return false;
+        }
+        for (int i = 2; i < squares.length; i++) {
+            int rank = squares[i] >>> 3;
+            if (table.type(i) == PAWN && (rank == 0 || rank == 7)) {
+                return false;
+            }
+        }
+        // The side that just moved cannot be left in check; a bare king only checks by adjacency
+        return sideToMove == BLACK || !attackedByWhite(squares[1], occupied, squares, -1);
+    }
+
+    private long occupancy(int[] squares) {
+        long occupied = 0;
+        for (int sq : squares) {
+            occupied |= 1L << sq;
+        }
+        return occupied;
+    }
+
+    private boolean attackedByWhite(int target, long occupied, int[] squares, int captured) {
+        for (int i = 0; i < squares.length; i++) {
+            if (i == 1 || i == captured) {
+                continue;
+            }
+            int type = table.type(i);
+            long attacks = type == PAWN ? Attacks.PAWN[WHITE][squares[i]] : EngineBoard.attacksFrom(type, squares[i], occupied);
+            if ((attacks & (1L << target)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Writes the indices of the legal moves that stay in the table and returns their count
+    private int moves(int sideToMove, int[] squares, int[] out) {
+        legalMoves = 0;
+        exitDraw = false;
+        exitWin = 0;
+        int count = 0;
+        long occupied = occupancy(squares);
+
+        if (sideToMove == BLACK) {
+            int king = squares[1];
+            long targets = Attacks.KING[king] & ~Attacks.KING[squares[0]] & ~(1L << squares[0]);
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                int captured = pieceOn(squares, to);
+                if (attackedByWhite(to, (occupied & ~(1L << king)) | (1L << to), squares, captured)) {
+                    continue;
+                }
+                legalMoves++;
+                if (captured >= 0) {
+                    exitDraw = true;
+                    continue;
+                }
+                squares[1] = to;
+                out[count++] = table.index(WHITE, squares);
+                squares[1] = king;
+            }
+            return count;
+        }
+
+        for (int i = 0; i < squares.length; i++) {
+            if (i == 1) {
+                continue;
+            }
+            int from = squares[i];
+            int type = table.type(i);
+            long targets;
+            if (type == PAWN) {
+                targets = pawnPushes(from, occupied);
+            } else {
+                targets = EngineBoard.attacksFrom(type, from, occupied) & ~occupied;
+                if (type == KING) {
+                    targets &= ~Attacks.KING[squares[1]];
+                }
+            }
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                legalMoves++;
+                if (type == PAWN && (to >>> 3) == 7) {
+                    promotion(squares[0], squares[1], to);
+                    continue;
+                }
+                squares[i] = to;
+                out[count++] = table.index(BLACK, squares);
+                squares[i] = from;
+            }
+        }
+        return count;
+    }
+
+    private long pawnPushes(int from, long occupied) {
+        long oneStep = (1L << (from + 8)) & ~occupied;
+        long twoSteps = (from >>> 3) == 1 && oneStep != 0 ? (1L << (from + 16)) & ~occupied : 0;
+        return oneStep | twoSteps;
+    }
+
+    private void promotion(int whiteKing, int blackKing, int queen) {
+        int value = queenTable.probe(BLACK, new int[] {whiteKing, blackKing, queen});
+        if (value < 0) {
+            exitWin = exitWin == 0 ? -value : Math.min(exitWin, -value);
+        } else {
+            exitDraw = true;
+        }
+    }
+
+    private int pieceOn(int[] squares, int sq) {
+        for (int i = 2; i < squares.length; i++) {
+            if (squares[i] == sq) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Positions one move before the given one that are in the table and legal, written to predecessors
+    private int predecessors(int index) {
+        int sideToMove = table.decode(index, other);
+        long occupied = occupancy(other);
+        int count = 0;
+        int mover = sideToMove ^ 1;
+
+        for (int i = 0; i < other.length; i++) {
+            if ((mover == BLACK) != (i == 1)) {
+                continue;
+            }
+            int to = other[i];
+            int type = table.type(i);
+            long origins;
+            if (type == PAWN) {
+                long oneStep = to >= 16 ? (1L << (to - 8)) & ~occupied : 0;
+                long twoSteps = (to >>> 3) == 3 && oneStep != 0 ? (1L << (to - 16)) & ~occupied : 0;
+                origins = oneStep | twoSteps;
+            } else {
+                origins = EngineBoard.attacksFrom(type, to, occupied) & ~occupied;
+            }
+            while (origins != 0) {
+                int from = Long.numberOfTrailingZeros(origins);
+                origins &= origins - 1;
+                other[i] = from;
+                int predecessor = table.index(mover, other);
+                other[i] = to;
+                if (state[predecessor] != ILLEGAL) {
+                    predecessors[count++] = predecessor;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static class IntList {
+        int[] items = new int[64];
+        int size;
+
+        void add(int value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static engine.EngineBoard.BLACK;
+import static engine.EngineBoard.KING;
+import static engine.EngineBoard.KNIGHT;
+import static engine.EngineBoard.PAWN;
+import static engine.EngineBoard.QUEEN;
+import static engine.EngineBoard.WHITE;
+
+// The endgame tables the engine knows about. load() skips tables whose file is missing;
+// loadDefault() builds them first, which takes a few seconds once.
+public class Tablebases {
+    public static final int NONE = Integer.MIN_VALUE;
+    public static final int MAX_PIECES = 4;
+    public static final Path DEFAULT_DIRECTORY = Paths.get("src/input/tablebases");
+    private static final String EXTENSION = ".tb";
+
+    private static Tablebases defaultTablebases;
+
+    private final List<Tablebase> tables;
+    private final int[] keys;
+
+    public Tablebases(List<Tablebase> tables) {
+        this.tables = new ArrayList<>(tables);
+        keys = new int[tables.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Tablebase table = tables.get(i);
+            for (int piece = 2; piece < table.getPieceCount(); piece++) {
+                keys[i] += materialKey(table.type(piece));
+            }
+        }
+    }
+
+    // In build order: the queen table comes first because promotions in the pawn table are looked up there
+    public static List<Tablebase> standardTables() {
+        List<Tablebase> tables = new ArrayList<>();
+        tables.add(new Tablebase("KQK", QUEEN));
+        tables.add(new Tablebase("KRK", EngineBoard.ROOK));
+        tables.add(new Tablebase("KPK", PAWN));
+        tables.add(new Tablebase("KBNK", EngineBoard.BISHOP, KNIGHT));
+        return tables;
+    }
+
+    public static Tablebases load(Path directory) throws IOException {
+        List<Tablebase> loaded = new ArrayList<>();
+        for (Tablebase table : standardTables()) {
+            Path path = directory.resolve(table.getName() + EXTENSION);
+            if (Files.exists(path)) {
+                table.load(path);
+                loaded.add(table);
+            }
+        }
+        return new Tablebases(loaded);
+    }
+
+    public static synchronized Tablebases loadDefault() {
+        if (defaultTablebases == null) {
+            try {
+                Files.createDirectories(DEFAULT_DIRECTORY);
+                for (Tablebase table : standardTables()) {
+                    if (!Files.exists(DEFAULT_DIRECTORY.resolve(table.getName() + EXTENSION))) {
+                        generate(DEFAULT_DIRECTORY, table);
+                    }
+                }
+                defaultTablebases = load(DEFAULT_DIRECTORY);
+            } catch (IOException e) {
+                System.out.println("Could not load the endgame tables: " + e.getMessage());
+                defaultTablebases = new Tablebases(List.of());
+            }
+        }
+        return defaultTablebases;
+    }
+
+    // Builds one table, writes it to the directory and maps the written file
+    public static Path generate(Path directory, Tablebase table) throws IOException {
+        Tablebase queenTable = null;
+        if (table.hasPawns()) {
+            queenTable = new Tablebase("KQK", QUEEN);
+            Path queenPath = directory.resolve(queenTable.getName() + EXTENSION);
+            if (!Files.exists(queenPath)) {
+                generate(directory, queenTable);
+            }
+            queenTable.load(queenPath);
+        }
+        Path path = directory.resolve(table.getName() + EXTENSION);
+        table.write(path, new TablebaseGenerator(table, queenTable).generate());
+        table.load(path);
+        return path;
+    }
+
+    public List<String> getNames() {
+        List<String> names = new ArrayList<>();
+        for (Tablebase table : tables) {
+            names.add(table.getName());
+        }
+        return names;
+    }
+
+    // Exact score of the position in search units, mate distances counted from the given ply,
+    // or NONE when no table covers it
+    public int probe(EngineBoard board, int ply) {
+        if (tables.isEmpty() || Long.bitCount(board.occupied()) > MAX_PIECES) {
+            return NONE;
+        }
+        long whitePieces = board.occupancy(WHITE) & ~board.bitboard(EngineBoard.pieceOf(WHITE, KING));
+        long blackPieces = board.occupancy(BLACK) & ~board.bitboard(EngineBoard.pieceOf(BLACK, KING));
+        if ((whitePieces == 0) == (blackPieces == 0)) {
+            return NONE;
+        }
+        int strong = whitePieces != 0 ? WHITE : BLACK;
+        int key = 0;
+        for (int type = PAWN; type < KING; type++) {
+            key += Long.bitCount(board.bitboard(EngineBoard.pieceOf(strong, type))) * materialKey(type);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == key) {
+                return score(tables.get(i), board, strong, ply);
+            }
+        }
+        return NONE;
+    }
+
+    private static int score(Tablebase table, EngineBoard board, int strong, int ply) {
+        // The strong side is stored as White, so a black strong side is mirrored top to bottom
+        int flip = strong == WHITE ? 0 : 56;
+        int[] squares = new int[table.getPieceCount()];
+        squares[0] = Long.numberOfTrailingZeros(board.bitboard(EngineBoard.pieceOf(strong, KING))) ^ flip;
+        squares[1] = Long.numberOfTrailingZeros(board.bitboard(EngineBoard.pieceOf(strong ^ 1, KING))) ^ flip;
+        long taken = 0;
+        for (int piece = 2; piece < squares.length; piece++) {
+            long candidates = board.bitboard(EngineBoard.pieceOf(strong, table.type(piece))) & ~taken;
+            int sq = Long.numberOfTrailingZeros(candidates);
+            taken |= 1L << sq;
+            squares[piece] = sq ^ flip;
+        }
+
+        int value = table.probe(board.sideToMove() == strong ? WHITE : BLACK, squares);
+        if (value > 0) {
+            return Search.MATE - ply - (value - 1);
+        }
+        if (value < 0) {
+            return -Search.MATE + ply + (-value - 1);
+        }
+        return 0;
+    }
+
+    private static int materialKey(int type) {
+        return 1 << (3 * type);
+    }
+}
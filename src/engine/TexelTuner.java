@@ -0,0 +1,305 @@
+package engine;
+
+import model.Board;
+import model.Colors;
+import model.Game;
+import model.Move;
+import org.json.simple.parser.ParseException;
+import util.JsonReaderUtil;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static engine.EngineBoard.BLACK;
+import static engine.EngineBoard.PAWN;
+import static engine.EngineBoard.WHITE;
+
+// Offline Texel tuning of the king-safety and pawn-structure weights of ClassicalEvaluator.
+// Every quiet position of every saved game becomes a training sample labelled with the game result;
+// games that were never finished are adjudicated by a shallow search of their last position.
+// Usage: TexelTuner [iterations] [games.json ...]
+public class TexelTuner {
+    private static final int ADJUDICATION_DEPTH = 4;
+    private static final int ADJUDICATION_MARGIN = 200;
+    private static final double LEARNING_RATE = 1.0;
+    private static final double BETA1 = 0.9;
+    private static final double BETA2 = 0.999;
+
+    static final String[] PARAMETERS = {
+        "SHIELD_NEAR_MG", "SHIELD_FAR_MG", "OPEN_FILE_MG", "OPEN_FILE_EG",
+        "DOUBLED_MG", "DOUBLED_EG", "ISOLATED_MG", "ISOLATED_EG",
+        "PASSED_MG[1]", "PASSED_MG[2]", "PASSED_MG[3]", "PASSED_MG[4]", "PASSED_MG[5]", "PASSED_MG[6]",
+        "PASSED_EG[1]", "PASSED_EG[2]", "PASSED_EG[3]", "PASSED_EG[4]", "PASSED_EG[5]", "PASSED_EG[6]"
+    };
+    private static final int PASSED_MG_INDEX = 8;
+    private static final int PASSED_EG_INDEX = 14;
+    private static final boolean[] MIDDLEGAME = {
+        true, true, true, false, true, false, true, false,
+        true, true, true, true, true, true, false, false, false, false, false, false
+    };
+
+    // Row layout of the packed sample array: tapered feature values, then the fixed part of the eval, then the result
+    private static final int STRIDE = PARAMETERS.length + 2;
+
+    private final float[] samples;
+    private final int count;
+    private final double[] weights;
+
+    public TexelTuner(float[] samples) {
+        this.samples = samples;
+        this.count = samples.length / STRIDE;
+        this.weights = currentWeights();
+    }
+
+    public static void main(String[] args) throws IOException, ParseException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        List<Path> paths = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            paths.add(Paths.get(args[i]));
+        }
+        if (paths.isEmpty()) {
+            paths.add(Paths.get("src/input/games.json"));
+        }
+
+        long start = System.currentTimeMillis();
+        List<Game> games = new ArrayList<>();
+        for (Path path : paths) {
+            games.addAll(JsonReaderUtil.readGamesAsMap(path).values());
+        }
+        float[] samples = extractSamples(games);
+        TexelTuner tuner = new TexelTuner(samples);
+        System.out.printf("%d games, %d quiet positions extracted in %d ms%n",
+                games.size(), tuner.count, System.currentTimeMillis() - start);
+        if (tuner.count == 0) {
+            return;
+        }
+
+        double k = tuner.fitScale();
+        double before = tuner.error(k);
+        start = System.currentTimeMillis();
+        tuner.tune(k, iterations);
+        System.out.printf("K = %.3f, error %.6f -> %.6f after %d iterations (%d ms)%n",
+                k, before, tuner.error(k), iterations, System.currentTimeMillis() - start);
+
+        double[] initial = currentWeights();
+        for (int i = 0; i < PARAMETERS.length; i++) {
+            System.out.printf("%-16s %5d -> %5d%n", PARAMETERS[i], Math.round(initial[i]), Math.round(tuner.weights[i]));
+        }
+    }
+
+    public static float[] extractSamples(Collection<Game> games) {
+        ThreadLocal<Engine> engines = ThreadLocal.withInitial(Engine::new);
+        List<float[]> rows = games.parallelStream()
+                .filter(game -> !game.getMoves().isEmpty())
+                .flatMap(game -> extract(game, engines.get()).stream())
+                .collect(Collectors.toList());
+
+        float[] samples = new float[rows.size() * STRIDE];
+        for (int i = 0; i < rows.size(); i++) {
+            System.arraycopy(rows.get(i), 0, samples, i * STRIDE, STRIDE);
+        }
+        return samples;
+    }
+
+    private static List<float[]> extract(Game game, Engine engine) {
+        List<EngineBoard> positions = new ArrayList<>();
+        Board board = new Board();
+        Colors sideToMove = Colors.WHITE;
+        try {
+            board.initialize();
+            for (Move move : game.getMoves()) {
+                positions.add(EngineBoard.fromBoard(board, sideToMove));
+                board.movePiece(move.getFrom(), move.getTo(), move.getPlayerColor(), false);
+                sideToMove = move.getPlayerColor() == Colors.WHITE ? Colors.BLACK : Colors.WHITE;
+            }
+            positions.add(EngineBoard.fromBoard(board, sideToMove));
+        } catch (Exception e) {
+            // A game that does not replay has no trustworthy positions or result
+            return List.of();
+        }
+
+        float result = adjudicate(EngineBoard.fromBoard(board, sideToMove), engine);
+        ClassicalEvaluator evaluator = new ClassicalEvaluator();
+        List<float[]> rows = new ArrayList<>();
+        for (EngineBoard position : positions) {
+            if (position.inCheck() || engine.quiescence(position) != evaluator.evaluate(position)) {
+                continue;
+            }
+            rows.add(sample(position, result));
+        }
+        return rows;
+    }
+
+    // 1 for a white win, 0 for a black win, 0.5 for a draw
+    static float adjudicate(EngineBoard board, Engine engine) {
+        if (!hasLegalMove(board)) {
+            if (!board.inCheck()) {
+                return 0.5f;
+            }
+            return board.sideToMove() == WHITE ? 0f : 1f;
+        }
+        SearchResult result = engine.search(board, new SearchLimits(ADJUDICATION_DEPTH, 0), new AtomicBoolean());
+        int score = board.sideToMove() == WHITE ? result.getScore() : -result.getScore();
+        if (score >= ADJUDICATION_MARGIN) {
+            return 1f;
+        }
+        return score <= -ADJUDICATION_MARGIN ? 0f : 0.5f;
+    }
+
+    private static boolean hasLegalMove(EngineBoard board) {
+        int[] moves = new int[EngineBoard.MAX_MOVES];
+        int count = board.generateMoves(moves, 0, false);
+        for (int i = 0; i < count; i++) {
+            if (board.makeMove(moves[i])) {
+                board.unmakeMove(moves[i]);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static float[] sample(EngineBoard board, float result) {
+        int[] counts = new int[PARAMETERS.length];
+        countTerms(board, counts);
+        double[] weights = currentWeights();
+        int phase = Math.min(board.phase(), PieceSquareTables.MAX_PHASE);
+
+        float[] row = new float[STRIDE];
+        double tunedPart = 0;
+        for (int i = 0; i < counts.length; i++) {
+            int taper = MIDDLEGAME[i] ? phase : PieceSquareTables.MAX_PHASE - phase;
+            row[i] = (float) counts[i] * taper / PieceSquareTables.MAX_PHASE;
+            tunedPart += row[i] * weights[i];
+        }
+        row[STRIDE - 2] = (float) (ClassicalEvaluator.recompute(board) - tunedPart);
+        row[STRIDE - 1] = result;
+        return row;
+    }
+
+    // White-minus-black occurrences of each tuned term, signed so that the term adds weight * count
+    static void countTerms(EngineBoard board, int[] counts) {
+        for (int color = WHITE; color <= BLACK; color++) {
+            int sign = color == WHITE ? 1 : -1;
+            long own = board.bitboard(EngineBoard.pieceOf(color, PAWN));
+            long enemy = board.bitboard(EngineBoard.pieceOf(color ^ 1, PAWN));
+
+            counts[0] += sign * ClassicalEvaluator.shieldPawns(board, color, ClassicalEvaluator.SHIELD_NEAR);
+            counts[1] += sign * ClassicalEvaluator.shieldPawns(board, color, ClassicalEvaluator.SHIELD_FAR);
+            counts[2] -= sign * ClassicalEvaluator.openFilesNearKing(board, color);
+            counts[3] -= sign * ClassicalEvaluator.openFilesNearKing(board, color);
+            counts[4] += sign * PawnStructure.doubled(own);
+            counts[5] += sign * PawnStructure.doubled(own);
+            counts[6] += sign * PawnStructure.isolated(own);
+            counts[7] += sign * PawnStructure.isolated(own);
+
+            long passed = PawnStructure.passed(own, enemy, color);
+            while (passed != 0) {
+                int advanced = PawnStructure.advanced(Long.numberOfTrailingZeros(passed), color);
+                passed &= passed - 1;
+                if (advanced >= 1 && advanced <= 6) {
+                    counts[PASSED_MG_INDEX + advanced - 1] += sign;
+                    counts[PASSED_EG_INDEX + advanced - 1] += sign;
+                }
+            }
+        }
+    }
+
+    static double[] currentWeights() {
+        double[] weights = {
+            ClassicalEvaluator.SHIELD_NEAR_MG, ClassicalEvaluator.SHIELD_FAR_MG,
+            ClassicalEvaluator.OPEN_FILE_MG, ClassicalEvaluator.OPEN_FILE_EG,
+            PawnStructure.DOUBLED_MG, PawnStructure.DOUBLED_EG, PawnStructure.ISOLATED_MG, PawnStructure.ISOLATED_EG,
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0
+        };
+        for (int advanced = 1; advanced <= 6; advanced++) {
+            weights[PASSED_MG_INDEX + advanced - 1] = PawnStructure.PASSED_MG[advanced];
+            weights[PASSED_EG_INDEX + advanced - 1] = PawnStructure.PASSED_EG[advanced];
+        }
+        return weights;
+    }
+
+    private double evaluate(int sample) {
+        int offset = sample * STRIDE;
+        double score = samples[offset + STRIDE - 2];
+        for (int i = 0; i < PARAMETERS.length; i++) {
+            score += samples[offset + i] * weights[i];
+        }
+        return score;
+    }
+
+    private static double sigmoid(double k, double score) {
+        return 1.0 / (1.0 + Math.pow(10.0, -k * score / 400.0));
+    }
+
+    public double error(double k) {
+        return IntStream.range(0, count).parallel()
+                .mapToDouble(i -> {
+                    double diff = samples[i * STRIDE + STRIDE - 1] - sigmoid(k, evaluate(i));
+                    return diff * diff;
+                })
+                .sum() / count;
+    }
+
+    // Scaling constant of the logistic curve that best fits the current weights
+    public double fitScale() {
+        double low = 0.05;
+        double high = 3.0;
+        for (int i = 0; i < 40; i++) {
+            double a = low + (high - low) / 3;
+            double b = high - (high - low) / 3;
+            if (error(a) < error(b)) {
+                high = b;
+            } else {
+                low = a;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    // Adam on the mean squared error; the gradient is summed over positions in parallel
+    public void tune(double k, int iterations) {
+        int parameters = PARAMETERS.length;
+        double[] m = new double[parameters];
+        double[] v = new double[parameters];
+        double slope = k * Math.log(10) / 400.0;
+
+        for (int iteration = 1; iteration <= iterations; iteration++) {
+            double[] gradient = IntStream.range(0, count).parallel()
+                    .collect(() -> new double[parameters], (sum, i) -> {
+                        double s = sigmoid(k, evaluate(i));
+                        double factor = -2.0 * (samples[i * STRIDE + STRIDE - 1] - s) * s * (1 - s) * slope;
+                        for (int p = 0; p < parameters; p++) {
+                            sum[p] += factor * samples[i * STRIDE + p];
+                        }
+                    }, (a, b) -> {
+                        for (int p = 0; p < parameters; p++) {
+                            a[p] += b[p];
+                        }
+                    });
+
+            for (int p = 0; p < parameters; p++) {
+                double g = gradient[p] / count;
+                m[p] = BETA1 * m[p] + (1 - BETA1) * g;
+                v[p] = BETA2 * v[p] + (1 - BETA2) * g * g;
+                double mHat = m[p] / (1 - Math.pow(BETA1, iteration));
+                double vHat = v[p] / (1 - Math.pow(BETA2, iteration));
+                weights[p] -= LEARNING_RATE * mHat / (Math.sqrt(vHat) + 1e-8);
+            }
+        }
+    }
+
+    public double[] getWeights() {
+        return weights.clone();
+    }
+
+    public int getSampleCount() {
+        return count;
+    }
+}
@@ -0,0 +1,58 @@
+package engine;
+
+import java.util.Arrays;
+
+public class TranspositionTable {
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int mask;
+
+    public TranspositionTable(int sizeBits) {
+        keys = new long[1 << sizeBits];
+        entries = new long[1 << sizeBits];
+        mask = (1 << sizeBits) - 1;
+    }
+
+    // Entry layout: move (16 bits) | score + 32768 (16 bits) | depth (8 bits) | bound (2 bits)
+    public void store(long hash, int move, int score, int depth, int bound) {
+        int index = (int) hash & mask;
+        if (keys[index] == hash && move == Moves.NONE) {
+            move = move(entries[index]);
+        }
+        keys[index] = hash;
+        entries[index] = (move & 0xFFFFL)
+                | ((long) (score + 32768) & 0xFFFFL) << 16
+                | ((long) Math.max(depth, 0) & 0xFFL) << 32
+                | ((long) bound & 0x3L) << 40;
+    }
+
+    public long probe(long hash) {
+        int index = (int) hash & mask;
+        return keys[index] == hash ? entries[index] : 0L;
+    }
+
+    public static int move(long entry) {
+        return (int) (entry & 0xFFFFL);
+    }
+
+    public static int score(long entry) {
+        return (int) ((entry >>> 16) & 0xFFFFL) - 32768;
+    }
+
+    public static int depth(long entry) {
+        return (int) ((entry >>> 32) & 0xFFL);
+    }
+
+    public static int bound(long entry) {
+        return (int) ((entry >>> 40) & 0x3L);
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(entries, 0L);
+    }
+}
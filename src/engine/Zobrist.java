@@ -0,0 +1,22 @@
+package engine;
+
+import java.util.Random;
+
+public final class Zobrist {
+    public static final long[][] PIECE_SQUARE = new long[12][64];
+    public static final long SIDE;
+
+    static {
+        // Fixed seed so hashes are reproducible between runs
+        Random random = new Random(0x5EED_C0DEL);
+        for (int piece = 0; piece < 12; piece++) {
+            for (int sq = 0; sq < 64; sq++) {
+                PIECE_SQUARE[piece][sq] = random.nextLong();
+            }
+        }
+        SIDE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+}
@@ -1,6 +1,7 @@
 package gui;
 
 import main.Main;
+import main.StartupProfiler;
 
 import javax.swing.*;
 import java.awt.*;
@@ -31,22 +32,21 @@ public class ChessGUI extends JFrame {
         cardLayout = new CardLayout();
         mainPanel = new JPanel(cardLayout);
 
+        // The game and end-of-game panels (and the game panel's engine) are built when first shown
         loginPanel = new LoginPanel(this);
         menuPanel = new MainMenuPanel(this);
-        gamePanel = new GamePanel(this);
-        endGamePanel = new EndGamePanel(this);
 
         mainPanel.add(loginPanel, LOGIN_PANEL);
         mainPanel.add(menuPanel, MENU_PANEL);
-        mainPanel.add(gamePanel, GAME_PANEL);
-        mainPanel.add(endGamePanel, END_GAME_PANEL);
 
         add(mainPanel);
 
         showPanel(LOGIN_PANEL);
+        StartupProfiler.mark("frame built");
     }
 
     public void showPanel(String panelName) {
+        getPanel(panelName);
         cardLayout.show(mainPanel, panelName);
     }
 
@@ -63,10 +63,18 @@ public class ChessGUI extends JFrame {
     }
 
     public GamePanel getGamePanel() {
+        if (gamePanel == null) {
+            gamePanel = new GamePanel(this);
+            mainPanel.add(gamePanel, GAME_PANEL);
+        }
         return gamePanel;
     }
 
     public EndGamePanel getEndGamePanel() {
+        if (endGamePanel == null) {
+            endGamePanel = new EndGamePanel(this);
+            mainPanel.add(endGamePanel, END_GAME_PANEL);
+        }
         return endGamePanel;
     }
 
@@ -77,9 +85,9 @@ public class ChessGUI extends JFrame {
             case MENU_PANEL:
                 return menuPanel;
             case GAME_PANEL:
-                return gamePanel;
+                return getGamePanel();
             case END_GAME_PANEL:
-                return endGamePanel;
+                return getEndGamePanel();
             default:
                 return null;
         }
@@ -98,6 +106,7 @@ public class ChessGUI extends JFrame {
         SwingUtilities.invokeLater(() -> {
             ChessGUI gui = new ChessGUI();
             gui.setVisible(true);
+            SwingUtilities.invokeLater(() -> StartupProfiler.mark("login screen shown"));
         });
     }
 }
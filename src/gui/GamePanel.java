@@ -1,5 +1,12 @@
 package gui;
 
+import engine.Engine;
+import engine.EngineBoard;
+import engine.EngineExecutor;
+import engine.Ponderer;
+import engine.SearchLimits;
+import engine.SearchResult;
+import engine.StaticExchange;
 import exceptions.InvalidCommandException;
 import exceptions.InvalidMoveException;
 import model.*;
@@ -12,15 +19,16 @@ import strategy.scoring.PieceCaptureScoringStrategy;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
-import java.util.TreeSet;
+import java.util.concurrent.Future;
 
 public class GamePanel extends JPanel implements GameObserver {
     private ChessGUI parentFrame;
     private Game game;
     private Player humanPlayer;
+    private final Engine engine = new Engine();
+    private final EngineExecutor engineExecutor = new EngineExecutor(engine, SwingUtilities::invokeLater);
+    private final Ponderer ponderer = new Ponderer(engineExecutor);
 
     private JButton[][] boardButtons;
     private JTextArea moveHistoryArea;
@@ -334,6 +342,10 @@ public class GamePanel extends JPanel implements GameObserver {
     }
 
     public void setGame(Game game, Player humanPlayer) {
+        stopEngine();
+        // Off the EDT: a search still running holds the engine, and the first NNUE switch loads the network
+        EvaluatorType evaluatorType = game.getEvaluatorType();
+        engineExecutor.execute(() -> engine.useEvaluator(evaluatorType));
         this.game = game;
         this.humanPlayer = humanPlayer;
 
@@ -405,6 +417,9 @@ public class GamePanel extends JPanel implements GameObserver {
                 game.getBoard().movePiece(from, to, humanPlayer.getColor(), false);
                 String promotionChoice = showPromotionDialog();
                 game.getBoard().promotePawnTo(to, humanPlayer.getColor(), promotionChoice);
+                if (capturedPiece != null) {
+                    humanPlayer.recordCapture(capturedPiece);
+                }
             } else {
                 humanPlayer.makeMove(from, to, game.getBoard());
             }
@@ -437,81 +452,60 @@ public class GamePanel extends JPanel implements GameObserver {
         }
     }
 
+    // The search runs on the engine thread; only the chosen move is applied here, on the EDT
     private void scheduleComputerMove() {
-        new Thread(() -> {
-            try {
-                Thread.sleep(500);
-                SwingUtilities.invokeLater(() -> makeComputerMove());
-            } catch (InterruptedException ex) {
-                Thread.currentThread().interrupt();
-            }
-        }).start();
+        Player computer = game.getPlayers().get((game.getCurrentPlayerIndex()));
+        Game searchedGame = game;
+        Future<SearchResult> pondered = ponderer.takeResult(game.getBoard(), computer.getColor());
+        if (pondered != null) {
+            engineExecutor.deliver(pondered, result -> makeComputerMove(searchedGame, computer, result));
+        } else {
+            EngineBoard position = EngineBoard.fromGame(game);
+            engineExecutor.submit(position, SearchLimits.of(game.getDifficulty()),
+                    result -> makeComputerMove(searchedGame, computer, result));
+        }
     }
 
-    private void makeComputerMove() {
-        try {
-            Player computer = game.getPlayers().get((game.getCurrentPlayerIndex()));
-
-            TreeSet<ChessPair<Position, Piece>> allPieces = game.getBoard().getPieces();
-            List<ChessPair<Position, Piece>> computerPieces = new   ArrayList<>();
-
-            for (ChessPair<Position, Piece> pair : allPieces) {
-                if (pair.getValue().getColor() == computer.getColor()) {
-                    computerPieces.add(pair);
-                }
-            }
+    private void stopEngine() {
+        ponderer.cancel();
+        engineExecutor.cancelAll();
+    }
 
-            if (computerPieces.isEmpty()) {
-                statusLabel.setText("No computer pieces found!");
-                statusLabel.setForeground(ACCENT_RED);
+    private void makeComputerMove(Game searchedGame, Player computer, SearchResult result) {
+        if (game != searchedGame || isHumanTurn()) {
+            return;
+        }
+        try {
+            if (!result.hasMove()) {
+                checkGameEnd();
                 return;
             }
 
-            Random random = new Random();
-            boolean moveMade = false;
-
-            while (!moveMade && !computerPieces.isEmpty()) {
-                int randomIndex = random.nextInt(computerPieces.size());
-                ChessPair<Position, Piece> selectedPair = computerPieces.get(randomIndex);
-                Position from = selectedPair.getKey();
-
-                try {
-                    List<Position> moves = game.getBoard().getLegalMoves(from, computer.getColor());
-
-                    if (!moves.isEmpty()) {
-                        Position to = moves.get(random.nextInt(moves.size()));
-
-                        Piece captured = game.getBoard().getPieceAt(to);
-                        computer.makeMove(from, to, game.getBoard());
-                        game.addMove(computer, from, to, captured);
-
-                        if (captured != null) {
-                            game.notifyPieceCaptured(captured);
-                        }
+            Position from = result.getFrom();
+            Position to = result.getTo();
+            Piece captured = game.getBoard().getPieceAt(to);
+            computer.makeMove(from, to, game.getBoard());
+            game.addMove(computer, from, to, captured);
 
-                        updateBoard();
-                        updateMoveHistory();
-                        moveMade = true;
+            if (captured != null) {
+                game.notifyPieceCaptured(captured);
+            }
 
-                        if (checkGameEnd()) {
-                            return;
-                        }
+            updateBoard();
+            updateMoveHistory();
 
-                        game.switchPlayer();
-                        game.registerBoardState();
-                        game.notifyPlayerSwitch(game.getCurrentPlayer());
-                        updateStatus();
-                    } else {
-                        computerPieces.remove(randomIndex);
-                    }
-                } catch (InvalidMoveException e) {
-                    computerPieces.remove(randomIndex);
-                }
+            if (checkGameEnd()) {
+                return;
             }
 
-            if (!moveMade) {
-                checkGameEnd();
-            }
+            game.switchPlayer();
+            game.registerBoardState();
+            game.notifyPlayerSwitch(game.getCurrentPlayer());
+            updateStatus();
+
+            // Think on the human's time about the reply the search expects
+            ponderer.start(game, result.getPrincipalVariation(),
+                    SearchLimits.of(game.getDifficulty()));
         } catch (Exception ex) {
             statusLabel.setText("Computer error: " + ex.getMessage());
             statusLabel.setForeground(ACCENT_RED);
@@ -522,6 +516,7 @@ public class GamePanel extends JPanel implements GameObserver {
     private boolean checkGameEnd() {
         try {
             if (game.checkForCheckMate()) {
+                stopEngine();
                 Player winner = game.getPlayers().get((game.getCurrentPlayerIndex() + 1) % 2);
                 boolean humanWon = winner.getColor() == humanPlayer.getColor();
 
@@ -550,6 +545,7 @@ public class GamePanel extends JPanel implements GameObserver {
             }
 
             if (game.checkForStalemate()) {
+                stopEngine();
                 GameEndScoringStrategy endScoring = new GameEndScoringStrategy();
                 int bonus = endScoring.getGameEndBonus(GameEndScoringStrategy.GameResult.DRAW);
                 updateUserScore(bonus);
@@ -621,6 +617,7 @@ public class GamePanel extends JPanel implements GameObserver {
         yesButton.setPreferredSize(new Dimension(140, 40));
         yesButton.addActionListener(e -> {
             dialog.dispose();
+            stopEngine();
             GameEndScoringStrategy endScoring = new GameEndScoringStrategy();
             int penalty = endScoring.getGameEndBonus(GameEndScoringStrategy.GameResult.RESIGN);
             updateUserScore(penalty);
@@ -654,12 +651,14 @@ public class GamePanel extends JPanel implements GameObserver {
     }
 
     private void handleSaveAndExit() {
+        stopEngine();
         parentFrame.getMainApp().write();
         parentFrame.showMainMenu();
     }
 
     private void handleBackToMenu() {
         if (game.getMoves().isEmpty()) {
+            stopEngine();
             removeGameFromUser();
             parentFrame.showMainMenu();
         } else {
@@ -669,9 +668,11 @@ public class GamePanel extends JPanel implements GameObserver {
                     JOptionPane.YES_NO_CANCEL_OPTION);
 
             if (confirm == JOptionPane.YES_OPTION) {
+                stopEngine();
                 parentFrame.getMainApp().write();
                 parentFrame.showMainMenu();
             } else if (confirm == JOptionPane.NO_OPTION) {
+                stopEngine();
                 parentFrame.showMainMenu();
             }
         }
@@ -745,8 +746,14 @@ public class GamePanel extends JPanel implements GameObserver {
 
     private void updateStatus() {
         if (isHumanTurn()) {
-            turnLabel.setText("Your turn");
-            turnLabel.setForeground(ACCENT_GREEN);
+            List<Position> hanging = StaticExchange.hangingPieces(game.getBoard(), humanPlayer.getColor());
+            if (hanging.isEmpty()) {
+                turnLabel.setText("Your turn");
+                turnLabel.setForeground(ACCENT_GREEN);
+            } else {
+                turnLabel.setText("Your turn - piece on " + hanging.get(0) + " is hanging");
+                turnLabel.setForeground(ACCENT_RED);
+            }
             if (!statusLabel.getText().startsWith("Welcome")) {
                 User currentUser = parentFrame.getMainApp().getCurrentUser();
                 if (currentUser != null) {
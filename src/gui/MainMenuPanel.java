@@ -2,6 +2,8 @@ package gui;
 
 import main.Main;
 import model.Colors;
+import model.Difficulty;
+import model.EvaluatorType;
 import model.Game;
 import model.Player;
 import model.User;
@@ -170,6 +172,39 @@ public class MainMenuPanel extends JPanel {
 
         mainPanel.add(colorPanel);
 
+        mainPanel.add(Box.createVerticalStrut(20));
+
+        JLabel difficultyLabel = new JLabel("Difficulty:");
+        difficultyLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        difficultyLabel.setForeground(new Color(160, 174, 192));
+        difficultyLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        mainPanel.add(difficultyLabel);
+
+        mainPanel.add(Box.createVerticalStrut(8));
+
+        JComboBox<Difficulty> difficultyBox = new JComboBox<>(Difficulty.values());
+        difficultyBox.setSelectedItem(Difficulty.MEDIUM);
+        difficultyBox.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        difficultyBox.setMaximumSize(new Dimension(350, 36));
+        difficultyBox.setAlignmentX(Component.CENTER_ALIGNMENT);
+        mainPanel.add(difficultyBox);
+
+        mainPanel.add(Box.createVerticalStrut(20));
+
+        JLabel evaluatorLabel = new JLabel("Evaluation:");
+        evaluatorLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        evaluatorLabel.setForeground(new Color(160, 174, 192));
+        evaluatorLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        mainPanel.add(evaluatorLabel);
+
+        mainPanel.add(Box.createVerticalStrut(8));
+
+        JComboBox<EvaluatorType> evaluatorBox = new JComboBox<>(EvaluatorType.values());
+        evaluatorBox.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        evaluatorBox.setMaximumSize(new Dimension(350, 36));
+        evaluatorBox.setAlignmentX(Component.CENTER_ALIGNMENT);
+        mainPanel.add(evaluatorBox);
+
         mainPanel.add(Box.createVerticalStrut(25));
 
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 0));
@@ -185,8 +220,10 @@ public class MainMenuPanel extends JPanel {
             }
 
             Colors playerColor = whiteButton.isSelected() ? Colors.WHITE : Colors.BLACK;
+            Difficulty difficulty = (Difficulty) difficultyBox.getSelectedItem();
+            EvaluatorType evaluatorType = (EvaluatorType) evaluatorBox.getSelectedItem();
             dialog.dispose();
-            startNewGame(playerName, playerColor);
+            startNewGame(playerName, playerColor, difficulty, evaluatorType);
         });
 
         JButton cancelButton = createStyledButton("Cancel", new Color(113, 128, 150));
@@ -198,17 +235,20 @@ public class MainMenuPanel extends JPanel {
         mainPanel.add(buttonPanel);
 
         dialog.add(mainPanel, BorderLayout.CENTER);
-        dialog.setSize(450, 380);
+        dialog.setSize(450, 540);
         dialog.setLocationRelativeTo(this);
         dialog.setVisible(true);
     }
 
-    private void startNewGame(String playerName, Colors playerColor) {
+    private void startNewGame(String playerName, Colors playerColor, Difficulty difficulty,
+                              EvaluatorType evaluatorType) {
         Main mainApp = parentFrame.getMainApp();
         User currentUser = mainApp.getCurrentUser();
 
         int newId = mainApp.getGames().isEmpty() ? 1 : Collections.max(mainApp.getGames().keySet()) + 1;
         Game game = new Game(newId);
+        game.setDifficulty(difficulty);
+        game.setEvaluatorType(evaluatorType);
 
         Player humanPlayer = new Player(playerName, playerColor);
         Player computerPlayer = new Player("Computer", playerColor == Colors.WHITE ? Colors.BLACK : Colors.WHITE);
@@ -290,7 +330,7 @@ public class MainMenuPanel extends JPanel {
 
         for (Game game : games) {
             JRadioButton radioButton = new JRadioButton(
-                "Game #" + game.getId() + " - " + game.getMoves().size() + " moves"
+                "Game #" + game.getId() + " - " + game.getMoveCount() + " moves"
             );
             radioButton.setFont(new Font("Segoe UI", Font.PLAIN, 14));
             radioButton.setForeground(new Color(237, 242, 247));
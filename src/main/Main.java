@@ -1,21 +1,31 @@
 package main;
 
+import engine.Engine;
+import engine.EngineBoard;
+import engine.SearchResult;
 import model.*;
 import pieces.Piece;
 import exceptions.*;
+import util.FenUtil;
 import util.JsonReaderUtil;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class Main {
     private static Main instance;
 
     private List<User> users;
     private Map<Integer, Game> games;
+    private CompletableFuture<Map<Integer, Game>> gamesLoading;
+    private boolean gamesLoadFailed;
+    // Game ids of each account as read, saved instead of the session's when the game store failed to load
+    private final Map<String, List<Integer>> storedGameIds = new HashMap<>();
     private User currentUser;
     private Scanner scanner;
+    private Engine engine;
 
     private static class TurnResult {
         boolean continueGame;
@@ -40,31 +50,59 @@ public class Main {
         return instance;
     }
 
+    // Only the accounts are read up front; the games load on a background thread while the login screen is up
     public void read() {
         try {
-            Path accountsPath = Paths.get("src/input/accounts.json");
-            Path gamesPath = Paths.get("src/input/games.json");
-
-            users = JsonReaderUtil.readUsers(accountsPath);
+            users = JsonReaderUtil.readUsers(Paths.get("src/input/accounts.json"));
+            for (User user : users) {
+                storedGameIds.put(user.getEmail(), new ArrayList<>(user.getGameIds()));
+            }
+            StartupProfiler.mark("accounts read (" + users.size() + " users)");
+        } catch (Exception e) {
+            System.out.println("Error loading data: " + e.getMessage());
+        }
 
-            Map<Long, Game> gamesLongMap = JsonReaderUtil.readGamesAsMap(gamesPath);
+        List<User> accounts = new ArrayList<>(users);
+        gamesLoading = CompletableFuture.supplyAsync(() -> loadGames(accounts), runnable -> {
+            Thread thread = new Thread(runnable, "game-loader");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
 
-            games = new HashMap<>();
+    // null when the store could not be read
+    private Map<Integer, Game> loadGames(List<User> accounts) {
+        Map<Integer, Game> loaded = new HashMap<>();
+        try {
+            Map<Long, Game> gamesLongMap = JsonReaderUtil.readGamesAsMap(Paths.get("src/input/games.json"));
             for (Map.Entry<Long, Game> entry : gamesLongMap.entrySet()) {
-                games.put(entry.getKey().intValue(), entry.getValue());
+                loaded.put(entry.getKey().intValue(), entry.getValue());
             }
 
-            for (User user : users) {
+            for (User user : accounts) {
                 for (Integer gameId : user.getGameIds()) {
-                    if (games.containsKey(gameId)) {
-                        user.addGame(games.get(gameId));
+                    if (loaded.containsKey(gameId)) {
+                        user.addGame(loaded.get(gameId));
                     }
                 }
             }
 
-            System.out.println("Loaded " + users.size() + " users and " + games.size() + " games.");
-        } catch (Exception e) {
-            System.out.println("Error loading data: " + e.getMessage());
+            StartupProfiler.mark("games indexed (" + loaded.size() + " games)");
+            System.out.println("Loaded " + accounts.size() + " users and " + loaded.size() + " games.");
+            return loaded;
+        } catch (Exception | OutOfMemoryError e) {
+            System.out.println("Error loading games: " + e);
+            return null;
+        }
+    }
+
+    // Blocks until the background load has finished; users are linked to their games by then
+    private void awaitGames() {
+        if (gamesLoading != null) {
+            Map<Integer, Game> loaded = gamesLoading.join();
+            gamesLoadFailed = loaded == null;
+            games = loaded != null ? loaded : new HashMap<>();
+            gamesLoading = null;
         }
     }
 
@@ -73,9 +111,17 @@ public class Main {
             Path accountsPath = Paths.get("src/input/accounts.json");
             Path gamesPath = Paths.get("src/input/games.json");
 
-            JsonReaderUtil.writeUsers(accountsPath, users);
-
-            JsonReaderUtil.writeGames(gamesPath, games);
+            // Games first, so accounts never list ids that were not saved.
+            // A store that failed to load is left alone rather than overwritten with the games of this session,
+            // and the accounts keep the game ids they were read with, which still match that store
+            Map<Integer, Game> allGames = getGames();
+            if (gamesLoadFailed) {
+                System.out.println("Games were not saved: the game store could not be loaded.");
+                JsonReaderUtil.writeUsers(accountsPath, withStoredGameIds(users));
+            } else {
+                JsonReaderUtil.writeGames(gamesPath, allGames);
+                JsonReaderUtil.writeUsers(accountsPath, users);
+            }
 
             System.out.println("Data saved successfully.");
         } catch (Exception e) {
@@ -83,9 +129,20 @@ public class Main {
         }
     }
 
+    private List<User> withStoredGameIds(List<User> accounts) {
+        List<User> copies = new ArrayList<>();
+        for (User user : accounts) {
+            User copy = new User(user.getEmail(), user.getPassword(), user.getPoints(), new ArrayList<>());
+            copy.setGames(new ArrayList<>(storedGameIds.getOrDefault(user.getEmail(), List.of())));
+            copies.add(copy);
+        }
+        return copies;
+    }
+
     public User login(String email, String password) {
         for (User user : users) {
             if (user.getEmail().equals(email) && user.getPassword().equals(password)) {
+                awaitGames();
                 currentUser = user;
                 return user;
             }
@@ -222,9 +279,21 @@ public class Main {
 
         Colors playerColor = colorStr.equals("WHITE") ? Colors.WHITE : Colors.BLACK;
 
-        int newId = games.isEmpty() ? 1 : Collections.max(games.keySet()) + 1;
+        System.out.print("Choose difficulty (EASY/MEDIUM/HARD/EXPERT): ");
+        String difficultyStr = scanner.nextLine().trim().toUpperCase();
+        Difficulty difficulty = Difficulty.fromString(difficultyStr);
+        if (!difficulty.name().equals(difficultyStr)) {
+            System.out.println("Invalid difficulty, defaulting to " + difficulty);
+        }
+
+        System.out.print("Choose evaluation (CLASSICAL/NNUE): ");
+        EvaluatorType evaluatorType = EvaluatorType.fromString(scanner.nextLine());
+
+        int newId = getGames().isEmpty() ? 1 : Collections.max(getGames().keySet()) + 1;
 
         Game game = new Game(newId);
+        game.setDifficulty(difficulty);
+        game.setEvaluatorType(evaluatorType);
 
         Player humanPlayer = new Player(playerName, playerColor);
         Player computerPlayer = new Player("computer",
@@ -240,7 +309,7 @@ public class Main {
         }
 
         game.setPlayers(players);
-        games.put(newId, game);
+        getGames().put(newId, game);
         currentUser.addGame(game);
 
         try {
@@ -319,7 +388,7 @@ public class Main {
         System.out.println("Winner: " + winner.getName());
 
         currentUser.removeGame(game);
-        games.remove(game.getId());
+        getGames().remove(game.getId());
     }
 
     private void announceDraw(Game game, Player humanPlayer) {
@@ -329,7 +398,7 @@ public class Main {
         System.out.println("Game ends in a draw.");
 
         currentUser.removeGame(game);
-        games.remove(game.getId());
+        getGames().remove(game.getId());
     }
 
     private TurnResult makeHumanMove(Game game, Player humanPlayer) {
@@ -348,7 +417,7 @@ public class Main {
                 int updatedPoints = currentUser.getPoints() + humanPlayer.getPoints() - 150;
                 currentUser.setPoints(updatedPoints);
                 currentUser.removeGame(game);
-                games.remove(game.getId());
+                getGames().remove(game.getId());
                 return new TurnResult(false, false);
             } else if (input.equals("SAVE")) {
                 System.out.println("\nGame saved.");
@@ -407,33 +476,24 @@ public class Main {
         }
     }
 
-    private TurnResult makeComputerMove(Game game, Colors humanColor) {
-        Colors computerColor = game.getCurrentPlayer().getColor();
-        List<ChessPair<Position, Position>> candidates = new ArrayList<>();
-
-        for (ChessPair<Position, Piece> pair : game.getBoard().getPieces()) {
-            if (pair.getValue().getColor() != computerColor) {
-                continue;
-            }
-            try {
-                List<Position> legalMoves = game.getBoard().getLegalMoves(pair.getKey(), computerColor);
-                for (Position move : legalMoves) {
-                    candidates.add(new ChessPair<>(pair.getKey(), move));
-                }
-            } catch (InvalidMoveException e) {
-                // ignore pieces that cannot move
-            }
+    // Created on the first computer move, so the GUI, which has its own engine, never allocates its tables
+    private Engine engine() {
+        if (engine == null) {
+            engine = new Engine();
         }
+        return engine;
+    }
 
-        if (candidates.isEmpty()) {
+    private TurnResult makeComputerMove(Game game, Colors humanColor) {
+        SearchResult result = engine().think(game);
+
+        if (!result.hasMove()) {
             System.out.println("Computer has no legal moves.");
             return new TurnResult(false, false);
         }
 
-        Random random = new Random();
-        ChessPair<Position, Position> choice = candidates.get(random.nextInt(candidates.size()));
-        Position from = choice.getKey();
-        Position to = choice.getValue();
+        Position from = result.getFrom();
+        Position to = result.getTo();
         Piece captured = game.getBoard().getPieceAt(to);
 
         try {
@@ -544,12 +604,14 @@ public class Main {
                     break;
                 case 3:
                     currentUser.removeGame(game);
-                    games.remove(game.getId());
+                    getGames().remove(game.getId());
                     System.out.println("\nGame deleted.");
                     break;
             }
         } catch (NumberFormatException | InvalidCommandException e) {
             System.out.println("\nInvalid input!");
+        } catch (IllegalStateException e) {
+            System.out.println("\n" + e.getMessage());
         }
     }
 
@@ -562,12 +624,59 @@ public class Main {
     }
 
     public Map<Integer, Game> getGames() {
+        awaitGames();
         return games;
     }
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equalsIgnoreCase("perft")) {
+            runPerft(args);
+            return;
+        }
+        if (Arrays.asList(args).contains("--profile-startup")) {
+            StartupProfiler.enable();
+        }
+        StartupProfiler.mark("main entered");
         Main app = Main.getInstance();
         app.read();
         gui.ChessGUI.launchGUI();
     }
+
+    // Usage: perft [depth] [fen]. Prints the per-move split of the game board, then checks the engine's
+    // move generator against it; both report nodes per second.
+    private static void runPerft(String[] args) {
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        String fen = args.length > 2 ? String.join(" ", Arrays.copyOfRange(args, 2, args.length))
+                : "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w";
+        try {
+            Board board = FenUtil.parseBoard(fen);
+            Colors sideToMove = FenUtil.parseSideToMove(fen);
+
+            long start = System.nanoTime();
+            Map<String, Long> divide = board.divide(depth, sideToMove);
+            long boardNanos = System.nanoTime() - start;
+            long boardNodes = 0;
+            for (Map.Entry<String, Long> entry : divide.entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                boardNodes += entry.getValue();
+            }
+            System.out.printf("Board perft(%d) = %d in %d ms, %d nodes/second%n",
+                    depth, boardNodes, boardNanos / 1_000_000, nodesPerSecond(boardNodes, boardNanos));
+
+            start = System.nanoTime();
+            long engineNodes = EngineBoard.fromBoard(board, sideToMove).perft(depth);
+            long engineNanos = System.nanoTime() - start;
+            System.out.printf("Engine perft(%d) = %d in %d ms, %d nodes/second%n",
+                    depth, engineNodes, engineNanos / 1_000_000, nodesPerSecond(engineNodes, engineNanos));
+            if (engineNodes != boardNodes) {
+                System.out.println("Mismatch between the board and the engine move generator");
+            }
+        } catch (InvalidCommandException | InvalidMoveException e) {
+            System.out.println("Perft failed: " + e.getMessage());
+        }
+    }
+
+    private static long nodesPerSecond(long nodes, long nanos) {
+        return nodes * 1_000_000_000L / Math.max(1, nanos);
+    }
 }
@@ -0,0 +1,28 @@
+package main;
+
+import java.lang.management.ManagementFactory;
+
+// Timings of the startup phases, printed as they happen when profiling is on (--profile-startup or
+// -Dchess.profileStartup=true). Each line shows the phase's own time and the time since the JVM started.
+public final class StartupProfiler {
+    private static final long JVM_START = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    private static boolean enabled = Boolean.getBoolean("chess.profileStartup");
+    private static long last = JVM_START;
+
+    private StartupProfiler() {
+    }
+
+    public static synchronized void enable() {
+        enabled = true;
+    }
+
+    public static synchronized void mark(String phase) {
+        long now = System.currentTimeMillis();
+        if (enabled) {
+            System.out.printf("[startup] %-40s %6d ms  (%6d ms since JVM start, %s)%n",
+                    phase, now - last, now - JVM_START, Thread.currentThread().getName());
+        }
+        last = now;
+    }
+}
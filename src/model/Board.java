@@ -6,7 +6,9 @@ import factory.PieceFactory;
 import pieces.*;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 import java.util.TreeSet;
 
@@ -132,7 +134,7 @@ public class Board {
         return simulated.isKingInCheck(moverColor);
     }
 
-    private Board cloneBoard() throws InvalidMoveException {
+    public Board cloneBoard() throws InvalidMoveException {
         Board clone = new Board();
         clone.pieces.clear();
         for (ChessPair<Position, Piece> pair : pieces) {
@@ -373,6 +375,44 @@ public class Board {
         System.out.println();
     }
 
+    // Number of leaf positions after every legal move sequence of the given length. Promotions count once,
+    // as the board always promotes to a queen here, and there is no castling or en passant.
+    public long perft(int depth, Colors sideToMove) throws InvalidMoveException, InvalidCommandException {
+        if (depth == 0) {
+            return 1;
+        }
+        long nodes = 0;
+        for (Map.Entry<String, Long> entry : divide(depth, sideToMove).entrySet()) {
+            nodes += entry.getValue();
+        }
+        return nodes;
+    }
+
+    // Perft split by root move, keyed like "E2-E4"
+    public Map<String, Long> divide(int depth, Colors sideToMove) throws InvalidMoveException, InvalidCommandException {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        if (depth <= 0) {
+            return counts;
+        }
+        Colors opponent = sideToMove == Colors.WHITE ? Colors.BLACK : Colors.WHITE;
+        for (ChessPair<Position, Piece> pair : new ArrayList<>(pieces)) {
+            if (pair.getValue().getColor() != sideToMove) {
+                continue;
+            }
+            Position from = pair.getKey();
+            for (Position to : getLegalMoves(from, sideToMove)) {
+                long nodes = 1;
+                if (depth > 1) {
+                    Board child = cloneBoard();
+                    child.performMove(from, to, false);
+                    nodes = child.perft(depth - 1, opponent);
+                }
+                counts.put(from + "-" + to, nodes);
+            }
+        }
+        return counts;
+    }
+
     public TreeSet<ChessPair<Position, Piece>> getPieces() {
         return pieces;
     }
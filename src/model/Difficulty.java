@@ -0,0 +1,36 @@
+package model;
+
+// Strength is bounded by searched nodes and depth rather than time, so a level plays the same on any machine
+public enum Difficulty {
+    EASY(2, 2_000),
+    MEDIUM(4, 40_000),
+    HARD(6, 400_000),
+    EXPERT(10, 3_000_000);
+
+    private final int maxDepth;
+    private final long maxNodes;
+
+    Difficulty(int maxDepth, long maxNodes) {
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    public static Difficulty fromString(String value) {
+        if (value != null) {
+            for (Difficulty difficulty : values()) {
+                if (difficulty.name().equalsIgnoreCase(value.trim())) {
+                    return difficulty;
+                }
+            }
+        }
+        return MEDIUM;
+    }
+}
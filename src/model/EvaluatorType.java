@@ -0,0 +1,18 @@
+package model;
+
+// How the computer judges positions: handcrafted terms or the neural network
+public enum EvaluatorType {
+    CLASSICAL,
+    NNUE;
+
+    public static EvaluatorType fromString(String value) {
+        if (value != null) {
+            for (EvaluatorType type : values()) {
+                if (type.name().equalsIgnoreCase(value.trim())) {
+                    return type;
+                }
+            }
+        }
+        return CLASSICAL;
+    }
+}
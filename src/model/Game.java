@@ -17,7 +17,15 @@ public class Game {
     private List<Move> moves;
     private int currentPlayerIndex;
     private Map<String, Integer> boardStates;
+    // Engine hash of every registered position, in order, so a search can see the game's repetitions
+    private List<String> positionHistory;
     private List<GameObserver> observers;
+    private Difficulty difficulty;
+    private EvaluatorType evaluatorType;
+    private ScoreLedger scoreLedger;
+    private boolean scoresRestored;
+    private GameBodyLoader bodyLoader;
+    private int storedMoveCount;
 
     public Game() {
         players = new ArrayList<>();
@@ -25,7 +33,11 @@ public class Game {
         board = new Board();
         currentPlayerIndex = 0;
         boardStates = new HashMap<>();
+        positionHistory = new ArrayList<>();
         observers = new ArrayList<>();
+        difficulty = Difficulty.MEDIUM;
+        evaluatorType = EvaluatorType.CLASSICAL;
+        scoreLedger = new ScoreLedger();
     }
 
     public Game(int id) {
@@ -38,13 +50,17 @@ public class Game {
     }
 
     public void start(Colors perspective) throws InvalidCommandException {
+        bodyLoader = null;
         board.initialize();
         moves.clear();
+        scoreLedger.reset();
+        scoresRestored = true;
         currentPlayerIndex = 0;
         boardStates.clear();
+        positionHistory.clear();
         registerBoardState();
         System.out.println("Game Started");
-        board.display(perspective);
+        getBoard().display(perspective);
     }
 
     public void resume() throws InvalidCommandException {
@@ -56,10 +72,15 @@ public class Game {
             boardStates = new HashMap<>();
         }
         boardStates.clear();
-        rebuildPlayerStateFromMoves();
+        positionHistory.clear();
+        // Games saved before the ledger existed have no scores yet, so they are rebuilt once from the moves
+        if (!scoresRestored) {
+            rebuildPlayerStateFromMoves();
+            scoresRestored = true;
+        }
         registerBoardState();
         System.out.println("Game Resumed");
-        board.display(perspective);
+        getBoard().display(perspective);
     }
 
     public void switchPlayer() {
@@ -95,18 +116,18 @@ public class Game {
         Player currentPlayer = getCurrentPlayer();
         Colors colorToMove = currentPlayer.getColor();
 
-        if (!board.isKingInCheck(colorToMove)) {
+        if (!getBoard().isKingInCheck(colorToMove)) {
             return false;
         }
         return !hasAnyLegalMove(colorToMove);
     }
 
     public boolean hasAnyLegalMove(Colors color) throws InvalidMoveException {
-        for (ChessPair<Position, Piece> pair : board.getPieces()) {
+        for (ChessPair<Position, Piece> pair : getBoard().getPieces()) {
             if (pair.getValue().getColor() != color) {
                 continue;
             }
-            List<Position> legalMoves = board.getLegalMoves(pair.getKey(), color);
+            List<Position> legalMoves = getBoard().getLegalMoves(pair.getKey(), color);
             if (!legalMoves.isEmpty()) {
                 return true;
             }
@@ -115,7 +136,7 @@ public class Game {
     }
 
     public void addMove(Player player, Position from, Position to) {
-        addMove(player, from, to, board.getPieceAt(to));
+        addMove(player, from, to, getBoard().getPieceAt(to));
     }
 
     public void addMove(Player player, Position from, Position to, Piece capturedPiece) {
@@ -123,7 +144,7 @@ public class Game {
         if (capturedPiece != null) {
             move.setCapturedPiece(capturedPiece);
         }
-        moves.add(move);
+        getMoves().add(move);
     }
 
     public boolean checkForStalemate() throws InvalidMoveException {
@@ -131,13 +152,14 @@ public class Game {
             return true;
         }
         Colors colorToMove = getCurrentPlayer().getColor();
-        if (board.isKingInCheck(colorToMove)) {
+        if (getBoard().isKingInCheck(colorToMove)) {
             return false;
         }
         return !hasAnyLegalMove(colorToMove);
     }
 
     public boolean isThreefoldRepetition() {
+        List<Move> moves = getMoves();
         if (moves == null || moves.size() < 6) {
             return false;
         }
@@ -164,8 +186,14 @@ public class Game {
         if (!players.isEmpty()) {
             turn = getCurrentPlayer().getColor();
         }
-        String signature = board.snapshot(turn);
+        String signature = getBoard().snapshot(turn);
         boardStates.put(signature, boardStates.getOrDefault(signature, 0) + 1);
+        positionHistory.add(signature);
+    }
+
+    // Snapshots of every registered position in the order they were reached, for the engine's repetition check
+    public List<String> getPositionHistory() {
+        return positionHistory;
     }
 
     public int getId() {
@@ -180,27 +208,104 @@ public class Game {
         this.id = (int) id;
     }
 
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(Difficulty difficulty) {
+        this.difficulty = difficulty != null ? difficulty : Difficulty.MEDIUM;
+    }
+
+    public EvaluatorType getEvaluatorType() {
+        return evaluatorType;
+    }
+
+    public void setEvaluatorType(EvaluatorType evaluatorType) {
+        this.evaluatorType = evaluatorType != null ? evaluatorType : EvaluatorType.CLASSICAL;
+    }
+
     public Board getBoard() {
+        loadBody();
         return board;
     }
 
     public void setBoard(Board board) {
+        loadBody();
         this.board = board;
     }
 
+    // Stored games get their board and moves built on first use; until then only the move count is known
+    public void setBodyLoader(GameBodyLoader bodyLoader, int moveCount) {
+        this.bodyLoader = bodyLoader;
+        this.storedMoveCount = moveCount;
+    }
+
+    // The loader still waiting to fill in the board and moves, or null once they are loaded
+    public GameBodyLoader getBodyLoader() {
+        return bodyLoader;
+    }
+
+    public boolean isBodyLoaded() {
+        return bodyLoader == null;
+    }
+
+    public int getMoveCount() {
+        return bodyLoader != null ? storedMoveCount : moves.size();
+    }
+
+    private void loadBody() {
+        if (bodyLoader == null) {
+            return;
+        }
+        // Detached while loading, since load fills the game in through setBoard and setMoves
+        GameBodyLoader loader = bodyLoader;
+        bodyLoader = null;
+        try {
+            loader.load(this);
+        } catch (InvalidCommandException e) {
+            // Kept so a save still writes the stored body rather than an empty board
+            bodyLoader = loader;
+            throw new IllegalStateException("Could not load game " + id + ": " + e.getMessage(), e);
+        }
+    }
+
     public List<Player> getPlayers() {
         return players;
     }
 
     public void setPlayers(List<Player> players) {
         this.players = players;
+        if (players != null) {
+            for (Player player : players) {
+                int points = player.getPoints();
+                player.setLedger(scoreLedger);
+                player.setPoints(points);
+            }
+        }
+    }
+
+    public ScoreLedger getScoreLedger() {
+        return scoreLedger;
+    }
+
+    // Installs the scores saved with the game; resuming then skips the replay of the moves
+    public void restoreScores(ScoreLedger ledger) {
+        scoreLedger = ledger;
+        scoresRestored = true;
+        if (players != null) {
+            for (Player player : players) {
+                player.setLedger(ledger);
+            }
+        }
     }
 
     public List<Move> getMoves() {
+        loadBody();
         return moves;
     }
 
     public void setMoves(List<Move> moves) {
+        loadBody();
         if (moves == null) {
             this.moves = new ArrayList<>();
         } else {
@@ -214,8 +319,9 @@ public class Game {
         }
         for (Player player : players) {
             player.getCapturedPieces().clear();
-            player.setPoints(0);
         }
+        scoreLedger.reset();
+        List<Move> moves = getMoves();
         if (moves == null) {
             return;
         }
@@ -225,8 +331,7 @@ public class Game {
             }
             for (Player player : players) {
                 if (player.getColor() == move.getPlayerColor()) {
-                    player.getCapturedPieces().add(move.getCapturedPiece());
-                    player.setPoints(player.getPoints() + captureValue(move.getCapturedPiece()));
+                    player.recordCapture(move.getCapturedPiece());
                     break;
                 }
             }
@@ -249,22 +354,6 @@ public class Game {
         return first.getFrom().equals(second.getTo()) && first.getTo().equals(second.getFrom());
     }
 
-    private int captureValue(Piece capturedPiece) {
-        switch (capturedPiece.type()) {
-            case 'Q':
-                return 90;
-            case 'R':
-                return 50;
-            case 'B':
-            case 'N':
-                return 30;
-            case 'P':
-                return 6;
-            default:
-                return 0;
-        }
-    }
-
     public void addObserver(GameObserver observer) {
         if (observer != null && !observers.contains(observer)) {
             observers.add(observer);
@@ -0,0 +1,8 @@
+package model;
+
+import exceptions.InvalidCommandException;
+
+// Fills in the board and moves of a stored game, through setBoard and setMoves, when the game is first used
+public interface GameBodyLoader {
+    void load(Game game) throws InvalidCommandException;
+}
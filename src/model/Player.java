@@ -13,13 +13,13 @@ public class Player {
     private Colors color;
     private List<Piece> capturedPieces;
     private TreeSet<ChessPair<Position, Piece>> ownedPieces;
-    private int points;
+    private ScoreLedger ledger;
 
     public Player(String name, Colors color) {
         this.name = name;
         this.color = color;
         this.ownedPieces = new TreeSet<ChessPair<Position, Piece>>();
-        this.points = 0;
+        this.ledger = new ScoreLedger();
         this.capturedPieces = new ArrayList<Piece>();
     }
 
@@ -39,31 +39,16 @@ public class Player {
         board.movePiece(from, to, this.color, allowPromotionChoice);
 
         if (capturedPiece != null) {
-            capturedPieces.add(capturedPiece);
-            updatePoints(capturedPiece);
+            recordCapture(capturedPiece);
         }
 
         updateOwnedPiece(board);
     }
 
-    private void updatePoints(Piece capturedPiece) {
-        switch (capturedPiece.type()) {
-            case 'Q':
-                points += 90;
-                break;
-            case 'R':
-                points += 50;
-                break;
-            case 'B':
-                points += 30;
-                break;
-            case 'N':
-                points += 30;
-                break;
-            case 'P':
-                points += 6;
-                break;
-        }
+    // Promotions are played on the board directly, so their captures are recorded through here too
+    public void recordCapture(Piece capturedPiece) {
+        capturedPieces.add(capturedPiece);
+        ledger.recordCapture(color, capturedPiece);
     }
 
     private void updateOwnedPiece(Board board) {
@@ -84,7 +69,7 @@ public class Player {
     }
 
     public int getPoints() {
-        return points;
+        return ledger.getPoints(color);
     }
 
     public String getName() {
@@ -96,7 +81,12 @@ public class Player {
     }
 
     public void setPoints(int points) {
-        this.points = points;
+        ledger.setPoints(color, points);
+    }
+
+    // Players of a game share the game's ledger
+    void setLedger(ScoreLedger ledger) {
+        this.ledger = ledger;
     }
 
     public boolean isComputer() {
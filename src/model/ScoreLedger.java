@@ -0,0 +1,33 @@
+package model;
+
+import pieces.Piece;
+import strategy.scoring.PieceCaptureScoringStrategy;
+import strategy.scoring.ScoringStrategy;
+
+// Capture points of both colors in one game. It is updated on every capture and saved with the game,
+// so resuming a game does not need to replay its moves.
+public class ScoreLedger {
+    private static final ScoringStrategy CAPTURE_SCORING = new PieceCaptureScoringStrategy();
+
+    private final int[] points = new int[Colors.values().length];
+
+    public int recordCapture(Colors capturer, Piece captured) {
+        int value = CAPTURE_SCORING.calculatePoints(captured);
+        points[capturer.ordinal()] += value;
+        return value;
+    }
+
+    public int getPoints(Colors color) {
+        return points[color.ordinal()];
+    }
+
+    public void setPoints(Colors color, int value) {
+        points[color.ordinal()] = value;
+    }
+
+    public void reset() {
+        for (Colors color : Colors.values()) {
+            points[color.ordinal()] = 0;
+        }
+    }
+}
@@ -11,8 +11,10 @@ public class PieceCaptureScoringStrategy implements ScoringStrategy {
         }
 
         Piece piece = (Piece) context;
-        char type = piece.type();
+        return valueOf(piece.type());
+    }
 
+    public static int valueOf(char type) {
         return switch (type) {
             case 'Q' -> 90;
             case 'R' -> 50;
@@ -1,20 +1,73 @@
 package test;
 
+import benchmark.BenchmarkResult;
+import benchmark.BenchmarkRun;
+import benchmark.Comparison;
+import benchmark.Measurement;
+import benchmark.ResultsFile;
+import benchmark.Harness;
+import benchmark.PersistenceBenchmark;
+import benchmark.PersistenceResult;
+import benchmark.RulesBenchmark;
+import engine.Engine;
+import engine.Accumulator;
+import engine.Attacks;
+import engine.Bench;
+import engine.ClassicalEvaluator;
+import engine.EngineBoard;
+import engine.EngineExecutor;
+import engine.EvalCache;
+import engine.Moves;
+import engine.Network;
+import engine.NnueEvaluator;
+import engine.ParallelPerft;
+import engine.PerftTable;
+import engine.PawnHashTable;
+import engine.PawnStructure;
+import engine.PieceSquareTables;
+import engine.Ponderer;
+import engine.Search;
+import engine.SearchLimits;
+import engine.SearchResult;
+import engine.StaticExchange;
+import engine.Tablebase;
+import engine.Tablebases;
+import engine.TexelTuner;
 import exceptions.InvalidCommandException;
 import exceptions.InvalidMoveException;
 import model.*;
 import pieces.*;
+import strategy.scoring.PieceCaptureScoringStrategy;
+import tournament.EngineSpec;
+import tournament.MatchStats;
+import tournament.Sprt;
+import tournament.Tournament;
+import util.FenUtil;
 import util.JsonReaderUtil;
+import util.JsonStreamReader;
+import util.JsonStreamWriter;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Test {
     private static int passed = 0;
@@ -37,6 +90,33 @@ public class Test {
         run("testCheckmate", Test::testCheckmate);
         run("testStalemateRepetition", Test::testStalemateRepetition);
         run("testJsonRoundTrip", Test::testJsonRoundTrip);
+        run("testScoreLedger", Test::testScoreLedger);
+        run("testEngineMoveGenerationMatchesBoard", Test::testEngineMoveGenerationMatchesBoard);
+        run("testEngineFindsMateInOne", Test::testEngineFindsMateInOne);
+        run("testPonderReuseAndDiscard", Test::testPonderReuseAndDiscard);
+        run("testEngineExecutorCancellation", Test::testEngineExecutorCancellation);
+        run("testDifficultyNodeBudget", Test::testDifficultyNodeBudget);
+        run("testIncrementalEvaluation", Test::testIncrementalEvaluation);
+        run("testTaperedEvaluation", Test::testTaperedEvaluation);
+        run("testFenRoundTrip", Test::testFenRoundTrip);
+        run("testEvalCache", Test::testEvalCache);
+        run("testPawnStructureTable", Test::testPawnStructureTable);
+        run("testNnueEvaluator", Test::testNnueEvaluator);
+        run("testTexelTuner", Test::testTexelTuner);
+        run("testMobility", Test::testMobility);
+        run("testStaticExchange", Test::testStaticExchange);
+        run("testLazyEvaluation", Test::testLazyEvaluation);
+        run("testTablebases", Test::testTablebases);
+        run("testPerft", Test::testPerft);
+        run("testParallelPerft", Test::testParallelPerft);
+        run("testBenchmarkHarness", Test::testBenchmarkHarness);
+        run("testPersistenceBenchmark", Test::testPersistenceBenchmark);
+        run("testTournament", Test::testTournament);
+        run("testBenchmarkResults", Test::testBenchmarkResults);
+        run("testLazyGameBodies", Test::testLazyGameBodies);
+        run("testStreamingGameReader", Test::testStreamingGameReader);
+        run("testStreamingGameWriter", Test::testStreamingGameWriter);
+        run("testEngineSeesGameRepetitions", Test::testEngineSeesGameRepetitions);
 
         System.out.println("\nSummary: " + passed + " passed, " + failed + " failed.");
         if (failed > 0) {
@@ -258,7 +338,7 @@ public class Test {
         white.makeMove(pos("D1"), pos("D7"), board);
 
         assertEquals(1, white.getCapturedPieces().size(), "Captured list should include pawn");
-        assertEquals(6, white.getPoints(), "Capturing pawn should add 6 points");
+        assertEquals(10, white.getPoints(), "Capturing pawn should add 10 points");
         Piece newPiece = board.getPieceAt(pos("D7"));
         assertTrue(newPiece instanceof Queen, "Queen should now occupy captured square");
     }
@@ -333,6 +413,8 @@ public class Test {
         game.setId(99);
         game.setPlayers(Arrays.asList(new Player("W", Colors.WHITE), new Player("B", Colors.BLACK)));
         game.setCurrentPlayerIndex(1);
+        game.setDifficulty(Difficulty.HARD);
+        game.setEvaluatorType(EvaluatorType.NNUE);
 
         Board board = new Board();
         board.getPieces().clear();
@@ -370,5 +452,808 @@ public class Test {
         assertTrue(loadedMove.getCapturedPiece() != null, "Captured piece should roundtrip");
         assertEquals(capturedPiece.type(), loadedMove.getCapturedPiece().type(), "Captured piece type should roundtrip");
         assertEquals(capturedPiece.getColor(), loadedMove.getCapturedPiece().getColor(), "Captured piece color should roundtrip");
+        assertEquals(Difficulty.HARD, loaded.getDifficulty(), "Difficulty should roundtrip");
+        assertEquals(EvaluatorType.NNUE, loaded.getEvaluatorType(), "Evaluator choice should roundtrip");
+    }
+
+    private static void testScoreLedger() throws Exception {
+        Game game = new Game();
+        game.setId(7);
+        Player white = new Player("W", Colors.WHITE);
+        game.setPlayers(Arrays.asList(white, new Player("B", Colors.BLACK)));
+        game.setBoard(FenUtil.parseBoard("4k3/8/8/3r4/8/8/8/3QK3 w"));
+        white.makeMove(pos("D1"), pos("D5"), game.getBoard());
+        game.addMove(white, pos("D1"), pos("D5"), new Rook(Colors.BLACK, pos("D5")));
+        assertEquals(50, game.getScoreLedger().getPoints(Colors.WHITE), "The capture should be recorded in the game ledger");
+        assertEquals(PieceCaptureScoringStrategy.valueOf('R'), white.getPoints(), "Player points should come from the ledger");
+
+        Path gamesFile = Files.createTempFile("games", ".json");
+        Map<Integer, Game> games = new HashMap<>();
+        games.put(game.getId(), game);
+        JsonReaderUtil.writeGames(gamesFile, games);
+        Game loaded = JsonReaderUtil.readGamesAsMap(gamesFile).get(7L);
+        Files.deleteIfExists(gamesFile);
+
+        // With the ledger saved, resuming must not replay the moves
+        loaded.setMoves(new ArrayList<>());
+        loaded.resume();
+        assertEquals(50, loaded.getPlayers().get(0).getPoints(), "Saved scores should survive a resume");
+        assertEquals(0, loaded.getPlayers().get(1).getPoints(), "The other side has captured nothing");
+
+        Game legacy = new Game();
+        legacy.setPlayers(Arrays.asList(new Player("W", Colors.WHITE), new Player("B", Colors.BLACK)));
+        legacy.setBoard(FenUtil.parseBoard("4k3/8/8/3Q4/8/8/8/4K3 b"));
+        Move capture = new Move(Colors.WHITE, pos("D1"), pos("D5"));
+        capture.setCapturedPiece(new Pawn(Colors.BLACK, pos("D5")));
+        legacy.setMoves(new ArrayList<>(List.of(capture)));
+        legacy.resume();
+        assertEquals(10, legacy.getPlayers().get(0).getPoints(), "Games without a ledger should be rebuilt from their moves");
+    }
+
+    private static void testDifficultyNodeBudget() throws Exception {
+        assertEquals(Difficulty.MEDIUM, Difficulty.fromString(null), "Missing difficulty should default to MEDIUM");
+        assertEquals(Difficulty.EASY, Difficulty.fromString("easy"), "Difficulty parsing should ignore case");
+        assertEquals(Difficulty.MEDIUM, new Game().getDifficulty(), "New games should default to MEDIUM");
+
+        Board board = new Board();
+        board.initialize();
+        Engine engine = new Engine();
+        SearchResult easy = engine.think(board, Colors.WHITE, SearchLimits.of(Difficulty.EASY));
+        assertTrue(easy.hasMove(), "Easy level should still find a move");
+        assertTrue(easy.getNodes() <= Difficulty.EASY.getMaxNodes(), "Easy level should respect its node budget");
+        assertTrue(easy.getDepth() <= Difficulty.EASY.getMaxDepth(), "Easy level should respect its depth cap");
+
+        engine.newGame();
+        SearchResult again = engine.think(board, Colors.WHITE, SearchLimits.of(Difficulty.EASY));
+        assertEquals(easy.getNodes(), again.getNodes(), "Node-bounded levels should be reproducible");
+        assertEquals(easy.getFrom(), again.getFrom(), "Node-bounded levels should pick the same move");
+    }
+
+    private static void testIncrementalEvaluation() throws Exception {
+        PieceCaptureScoringStrategy captureScoring = new PieceCaptureScoringStrategy();
+        assertEquals(captureScoring.getPieceValue(new Rook(Colors.WHITE, pos("A1"))) * 10,
+                PieceSquareTables.MATERIAL[EngineBoard.ROOK], "Engine material should match capture scoring");
+
+        Board board = new Board();
+        board.initialize();
+        EngineBoard engineBoard = EngineBoard.fromBoard(board, Colors.WHITE);
+        ClassicalEvaluator evaluator = new ClassicalEvaluator();
+        assertEquals(0, evaluator.evaluate(engineBoard), "Start position should be balanced");
+
+        Random random = new Random(7);
+        int[] moves = new int[EngineBoard.MAX_MOVES];
+        int[] played = new int[120];
+        int plies = 0;
+        while (plies < played.length) {
+            int count = engineBoard.generateMoves(moves, 0, false);
+            int start = random.nextInt(Math.max(1, count));
+            int move = 0;
+            for (int i = 0; i < count && move == 0; i++) {
+                int candidate = moves[(start + i) % count];
+                if (engineBoard.makeMove(candidate)) {
+                    move = candidate;
+                }
+            }
+            if (move == 0) {
+                break;
+            }
+            played[plies++] = move;
+            int score = ClassicalEvaluator.recompute(engineBoard);
+            int expected = engineBoard.sideToMove() == EngineBoard.WHITE ? score : -score;
+            assertEquals(expected, evaluator.evaluate(engineBoard), "Incremental eval should match a full recompute");
+        }
+        while (plies > 0) {
+            engineBoard.unmakeMove(played[--plies]);
+        }
+        assertEquals(0, evaluator.evaluate(engineBoard), "Unmaking every move should restore the evaluation");
+    }
+
+    private static void testTaperedEvaluation() throws Exception {
+        Board board = new Board();
+        board.initialize();
+        assertEquals(PieceSquareTables.MAX_PHASE, EngineBoard.fromBoard(board, Colors.WHITE).phase(),
+                "Start position should be a full middlegame");
+
+        Board endgame = new Board();
+        endgame.getPieces().clear();
+        endgame.getPieces().add(pair(pos("E4"), wKing("E4")));
+        endgame.getPieces().add(pair(pos("A8"), bKing("A8")));
+        endgame.getPieces().add(pair(pos("B2"), new Pawn(Colors.WHITE, pos("B2"))));
+        EngineBoard pawnEnding = EngineBoard.fromBoard(endgame, Colors.WHITE);
+        assertEquals(0, pawnEnding.phase(), "King and pawn ending should be a pure endgame");
+        ClassicalEvaluator evaluator = new ClassicalEvaluator();
+        assertTrue(evaluator.evaluate(pawnEnding) > PieceSquareTables.MATERIAL[EngineBoard.PAWN],
+                "Central king should be rewarded in the endgame");
+
+        // Same material, but White's pawns in front of its king are gone while Black's are intact
+        List<String> missing = Arrays.asList("D2", "E2", "F2", "A7", "B7", "C7");
+        board.getPieces().removeIf(p -> missing.contains(p.getKey().toString()));
+        assertTrue(evaluator.evaluate(EngineBoard.fromBoard(board, Colors.WHITE)) < 0,
+                "Open files in front of the king should cost king safety");
+    }
+
+    private static void testFenRoundTrip() throws Exception {
+        String start = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w";
+        Board board = FenUtil.parseBoard(start);
+        Board initialized = new Board();
+        initialized.initialize();
+        assertEquals(initialized.snapshot(Colors.WHITE), board.snapshot(Colors.WHITE), "FEN start should match initialize");
+        assertEquals(start, FenUtil.toFen(board, Colors.WHITE), "FEN should roundtrip");
+
+        String midgame = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 0 1";
+        assertEquals(Colors.BLACK, FenUtil.parseSideToMove(midgame), "Side to move should be parsed");
+        assertEquals("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b",
+                FenUtil.toFen(FenUtil.parseBoard(midgame), Colors.BLACK), "Extra FEN fields should be ignored");
+        assertThrows(InvalidCommandException.class, () -> FenUtil.parseBoard("8/8/8 w"), "Short FEN should be rejected");
+    }
+
+    private static void testEvalCache() throws Exception {
+        EngineBoard board = EngineBoard.fromBoard(
+                FenUtil.parseBoard("r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1QBPPP/R3KB1R w"), Colors.WHITE);
+        ClassicalEvaluator evaluator = new ClassicalEvaluator();
+        EvalCache cache = new EvalCache(evaluator, 8);
+        int expected = evaluator.evaluate(board);
+        assertEquals(expected, cache.evaluate(board), "Cache miss should evaluate the position");
+        assertEquals(expected, cache.evaluate(board), "Cache hit should return the stored evaluation");
+        assertEquals(2L, cache.getProbes(), "Both lookups should count as probes");
+        assertEquals(1L, cache.getHits(), "Second lookup should hit");
+
+        Engine cached = new Engine(evaluator);
+        Engine uncached = new Engine(evaluator, 0);
+        SearchResult withCache = cached.search(board, new SearchLimits(5, 0), new AtomicBoolean());
+        SearchResult withoutCache = uncached.search(board, new SearchLimits(5, 0), new AtomicBoolean());
+        assertEquals(withoutCache.getNodes(), withCache.getNodes(), "Eval cache must not change the search");
+        assertTrue(cached.getEvalCache().getHits() > 0, "Search should reuse cached evaluations");
+    }
+
+    private static void testPawnStructureTable() throws Exception {
+        // White: doubled, isolated c-pawns. Black: a passed pawn on b3 and a healthy f/g pair.
+        EngineBoard board = EngineBoard.fromBoard(
+                FenUtil.parseBoard("4k3/5pp1/8/8/2P5/2P5/1p6/4K1N1 w"), Colors.WHITE);
+        int pawns = PawnStructure.evaluate(board);
+        assertTrue(PawnStructure.mg(pawns) < 0 && PawnStructure.eg(pawns) < 0, "White's weak pawns should score below Black's");
+        assertEquals(-7, PawnStructure.mg(PawnStructure.pack(-7, 12)), "Middlegame part should unpack");
+        assertEquals(12, PawnStructure.eg(PawnStructure.pack(-7, 12)), "Endgame part should unpack");
+        assertEquals(-30, PawnStructure.eg(PawnStructure.pack(25, -30)), "Negative endgame part should unpack");
+
+        long pawnKey = board.pawnKey();
+        int knightMove = board.findLegalMove(Moves.square(pos("G1")), Moves.square(pos("F3")));
+        board.makeMove(knightMove);
+        assertEquals(pawnKey, board.pawnKey(), "Piece moves should keep the pawn key");
+        int pawnMove = board.findLegalMove(Moves.square(pos("G7")), Moves.square(pos("G5")));
+        board.makeMove(pawnMove);
+        assertTrue(pawnKey != board.pawnKey(), "Pawn moves should change the pawn key");
+        board.unmakeMove(pawnMove);
+        board.unmakeMove(knightMove);
+        assertEquals(pawnKey, board.pawnKey(), "Unmake should restore the pawn key");
+
+        PawnHashTable table = new PawnHashTable(8);
+        assertEquals(pawns, table.probe(board), "Pawn table miss should evaluate the structure");
+        board.makeMove(knightMove);
+        assertEquals(pawns, table.probe(board), "Pawn table should hit when only pieces moved");
+        assertEquals(1L, table.getHits(), "Second probe should hit");
+    }
+
+    private static void testNnueEvaluator() throws Exception {
+        Path networkFile = Files.createTempFile("network", ".nnue");
+        Network.writeBootstrap(networkFile);
+        NnueEvaluator evaluator = new NnueEvaluator(Network.load(networkFile));
+        Files.deleteIfExists(networkFile);
+
+        EngineBoard start = EngineBoard.fromBoard(FenUtil.parseBoard("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w"), Colors.WHITE);
+        evaluator.prepare(start);
+        assertEquals(0, evaluator.evaluate(start), "Bootstrap network should see the start position as balanced");
+
+        EngineBoard queenUp = EngineBoard.fromBoard(FenUtil.parseBoard("rnb1kbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR b"), Colors.BLACK);
+        assertTrue(evaluator.evaluate(queenUp) < -800, "Side a queen down should be clearly worse");
+
+        Random random = new Random(11);
+        int[] moves = new int[EngineBoard.MAX_MOVES];
+        for (int ply = 0; ply < 80; ply++) {
+            int count = start.generateMoves(moves, 0, false);
+            int offset = random.nextInt(Math.max(1, count));
+            boolean moved = false;
+            for (int i = 0; i < count && !moved; i++) {
+                moved = start.makeMove(moves[(offset + i) % count]);
+            }
+            if (!moved) {
+                break;
+            }
+        }
+        Accumulator refreshed = new Accumulator(start.getAccumulator().getNetwork());
+        refreshed.refresh(start);
+        assertTrue(start.getAccumulator().matches(refreshed), "Incremental accumulator should match a refresh");
+
+        Board mate = new Board();
+        mate.getPieces().clear();
+        mate.getPieces().add(pair(pos("G1"), wKing("G1")));
+        mate.getPieces().add(pair(pos("A1"), new Rook(Colors.WHITE, pos("A1"))));
+        mate.getPieces().add(pair(pos("G8"), bKing("G8")));
+        mate.getPieces().add(pair(pos("F7"), new Pawn(Colors.BLACK, pos("F7"))));
+        mate.getPieces().add(pair(pos("G7"), new Pawn(Colors.BLACK, pos("G7"))));
+        mate.getPieces().add(pair(pos("H7"), new Pawn(Colors.BLACK, pos("H7"))));
+        SearchResult result = new Engine(evaluator).think(mate, Colors.WHITE, new SearchLimits(3, 0));
+        assertEquals(pos("A8"), result.getTo(), "NNUE search should still find the back-rank mate");
+    }
+
+    private static void testTexelTuner() throws Exception {
+        Game unstarted = new Game();
+        Game opening = new Game();
+        opening.setMoves(new ArrayList<>(List.of(new Move(Colors.WHITE, pos("E2"), pos("E4")))));
+
+        float[] samples = TexelTuner.extractSamples(List.of(opening));
+        TexelTuner tuner = new TexelTuner(samples);
+        assertTrue(tuner.getSampleCount() > 0, "Quiet positions should be extracted from the saved moves");
+
+        double k = tuner.fitScale();
+        double before = tuner.error(k);
+        tuner.tune(k, 50);
+        assertTrue(tuner.error(k) <= before, "Tuning should not increase the error");
+        assertEquals(0, TexelTuner.extractSamples(List.of(unstarted)).length, "Games without moves should be skipped");
+    }
+
+    private static void testMobility() throws Exception {
+        assertEquals(1L << Moves.square(pos("B3")), Attacks.pawns(EngineBoard.WHITE, 1L << Moves.square(pos("A2"))),
+                "Edge pawn should attack one square");
+        assertEquals(1L << Moves.square(pos("G6")), Attacks.pawns(EngineBoard.BLACK, 1L << Moves.square(pos("H7"))),
+                "Black pawns should attack downwards");
+
+        ClassicalEvaluator evaluator = new ClassicalEvaluator();
+        int blocked = evaluator.evaluate(EngineBoard.fromBoard(FenUtil.parseBoard("4k3/8/8/8/8/8/1P1P4/2B1K3 w"), Colors.WHITE));
+        int open = evaluator.evaluate(EngineBoard.fromBoard(FenUtil.parseBoard("4k3/8/8/8/8/1P1P4/8/2B1K3 w"), Colors.WHITE));
+        assertTrue(open - blocked >= 20, "A bishop freed from its own pawns should gain mobility");
+    }
+
+    private static void testStaticExchange() throws Exception {
+        Board defended = FenUtil.parseBoard("4k3/8/2p5/3n4/8/8/8/3QK3 w");
+        String before = defended.snapshot(Colors.WHITE);
+        assertEquals(-60, StaticExchange.see(defended, pos("D1"), pos("D5")), "Queen takes a pawn-defended knight and is lost");
+        assertEquals(before, defended.snapshot(Colors.WHITE), "Static exchange should not change the board");
+        assertTrue(StaticExchange.hangingPieces(defended, Colors.BLACK).isEmpty(),
+                "A defended knight is not hanging to a queen");
+
+        Board loose = FenUtil.parseBoard("4k3/8/8/3n4/8/8/8/3QK3 w");
+        assertEquals(30, StaticExchange.see(loose, pos("D1"), pos("D5")), "An undefended knight is won outright");
+        assertEquals(List.of(pos("D5")), StaticExchange.hangingPieces(loose, Colors.BLACK),
+                "The knight should be reported as hanging");
+
+        Board battery = FenUtil.parseBoard("3rk3/8/8/3p4/8/8/3R4/3RK3 w");
+        assertEquals(10, StaticExchange.see(battery, pos("D2"), pos("D5")), "The rook behind should join the exchange as an x-ray");
+        Board single = FenUtil.parseBoard("3rk3/8/8/3p4/8/8/3R4/4K3 w");
+        assertEquals(-40, StaticExchange.see(single, pos("D2"), pos("D5")), "Without the x-ray the rook is lost for a pawn");
+    }
+
+    private static void testLazyEvaluation() throws Exception {
+        EngineBoard queenUp = EngineBoard.fromBoard(FenUtil.parseBoard("4k3/pppp4/8/8/8/8/PPPP4/3QK3 w"), Colors.WHITE);
+        ClassicalEvaluator lazy = new ClassicalEvaluator(ClassicalEvaluator.LAZY_MARGIN);
+        int exact = lazy.evaluate(queenUp);
+        int bound = lazy.evaluate(queenUp, -50, 50);
+        assertTrue(lazy.wasLazy() && bound >= 50, "A queen up should fail high without the positional terms");
+        assertEquals(1L, lazy.getLazyExits(), "The early exit should be counted");
+        assertEquals(exact, lazy.evaluate(queenUp, exact - 1, exact + 1), "Inside the window the score is exact");
+        assertTrue(!lazy.wasLazy(), "A window around the score should force the full evaluation");
+
+        ClassicalEvaluator eager = new ClassicalEvaluator(0);
+        assertEquals(exact, eager.evaluate(queenUp, -50, 50), "A margin of 0 should turn the early exit off");
+        assertEquals(0L, eager.getLazyProbes(), "Disabled lazy evaluation should not be counted");
+
+        ClassicalEvaluator inner = new ClassicalEvaluator(ClassicalEvaluator.LAZY_MARGIN);
+        EvalCache cache = new EvalCache(inner, 8);
+        cache.evaluate(queenUp, -50, 50);
+        assertTrue(cache.wasLazy(), "A lazy miss should be reported as lazy");
+        assertEquals(exact, cache.evaluate(queenUp), "A lazy bound must not be cached as the evaluation");
+        assertEquals(0L, cache.getHits(), "The lazy bound should not have been stored");
+        inner.evaluate(queenUp, -50, 50);
+        assertEquals(exact, cache.evaluate(queenUp, -50, 50), "A hit returns the stored exact score");
+        assertTrue(!cache.wasLazy(), "A cache hit is exact whatever the inner evaluator did last");
+    }
+
+    private static void testTablebases() throws Exception {
+        Path directory = Files.createTempDirectory("tablebases");
+        Tablebases.generate(directory, new Tablebase("KQK", EngineBoard.QUEEN));
+        Tablebases.generate(directory, new Tablebase("KPK", EngineBoard.PAWN));
+        Tablebases tables = Tablebases.load(directory);
+        assertEquals(List.of("KQK", "KPK"), tables.getNames(), "Only the generated tables should be mapped");
+
+        assertEquals(Search.MATE - 1, tables.probe(tableBoard("7k/8/6K1/8/8/8/8/1Q6 w"), 0), "Qb8 mates in one ply");
+        assertEquals(-Search.MATE, tables.probe(tableBoard("Q6k/8/6K1/8/8/8/8/8 b"), 0), "Black is already mated");
+        assertEquals(Search.MATE - 1, tables.probe(tableBoard("1q6/8/8/8/8/6k1/8/7K b"), 0), "A black queen is probed mirrored");
+        assertEquals(0, tables.probe(tableBoard("k7/8/8/8/8/8/P7/K7 w"), 0), "A rook pawn against the cornered king is a draw");
+        assertTrue(tables.probe(tableBoard("4k3/8/3K4/4P3/8/8/8/8 w"), 0) > Search.MATE - Search.MAX_PLY,
+                "King on the sixth in front of its pawn wins");
+        assertEquals(Tablebases.NONE, tables.probe(tableBoard("7k/8/6K1/8/8/8/8/R7 w"), 0), "KRK was not generated");
+
+        Engine engine = new Engine();
+        engine.useTablebases(tables);
+        SearchResult result = engine.search(tableBoard("7k/8/6K1/8/8/8/8/1Q6 w"), new SearchLimits(1, 0), new AtomicBoolean());
+        assertEquals("B8", result.getTo().toString(), "The engine should play the tablebase mate");
+        assertEquals(Search.MATE - 1, result.getScore(), "The mate should be scored from the table");
+    }
+
+    // Published counts; position 3 stops at depth 2 on the game board because depth 3 has two
+    // en passant captures, which this game does not play (2812 becomes 2810)
+    private static void testPerft() throws Exception {
+        String start = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w";
+        String position3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w";
+        String position6 = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w";
+
+        long[] startCounts = {20, 400, 8902};
+        for (int depth = 1; depth <= startCounts.length; depth++) {
+            assertEquals(startCounts[depth - 1], FenUtil.parseBoard(start).perft(depth, Colors.WHITE), "Start position perft " + depth);
+        }
+        assertEquals(14L, FenUtil.parseBoard(position3).perft(1, Colors.WHITE), "Position 3 perft 1");
+        assertEquals(191L, FenUtil.parseBoard(position3).perft(2, Colors.WHITE), "Position 3 perft 2");
+        assertEquals(46L, FenUtil.parseBoard(position6).perft(1, Colors.WHITE), "Position 6 perft 1");
+        assertEquals(2079L, FenUtil.parseBoard(position6).perft(2, Colors.WHITE), "Position 6 perft 2");
+
+        assertEquals(197281L, tableBoard(start).perft(4), "Engine start position perft 4");
+        assertEquals(2810L, tableBoard(position3).perft(3), "Engine position 3 perft 3");
+        assertEquals(89890L, tableBoard(position6).perft(3), "Engine position 6 perft 3");
+
+        Map<String, Long> boardDivide = FenUtil.parseBoard(position6).divide(2, Colors.WHITE);
+        Map<String, Long> engineDivide = tableBoard(position6).divide(2);
+        assertEquals(new HashMap<>(boardDivide), new HashMap<>(engineDivide), "Board and engine should split perft alike");
+    }
+
+    private static void testParallelPerft() throws Exception {
+        String start = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w";
+        String position6 = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w";
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            EngineBoard board = tableBoard(start);
+            long hash = board.hash();
+            assertEquals(197281L, new ParallelPerft(pool, null).perft(board, 4), "Parallel perft 4 without a table");
+            assertEquals(197281L, new ParallelPerft(pool, new PerftTable(16)).perft(board, 4), "Parallel perft 4 with a table");
+            assertEquals(hash, board.hash(), "Parallel perft should leave the board alone");
+            assertEquals(89890L, new ParallelPerft(pool, new PerftTable(16)).perft(tableBoard(position6), 3), "Parallel position 6 perft 3");
+
+            // A small table is overwritten constantly, which must only cost hits and never change the count.
+            // The published 4865609 includes 258 en passant captures, which the engine does not play
+            PerftTable table = new PerftTable(10);
+            assertEquals(4865351L, new ParallelPerft(pool, table).perft(board, 5), "Parallel perft 5 with a small table");
+            assertEquals(4865351L, new ParallelPerft(pool, table).perft(board, 5), "Parallel perft 5 with a filled table");
+            assertEquals(1L, new ParallelPerft(pool, table).perft(board, 0), "Perft 0 counts the position itself");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void testBenchmarkHarness() throws Exception {
+        Harness harness = new Harness(1, 2, 20);
+        BenchmarkResult allocating = harness.measure("allocating", () -> new long[16]);
+        assertTrue(allocating.getOpsPerSecond() > 0, "Harness should count calls");
+        assertTrue(Math.abs(allocating.getNanosPerOp() * allocating.getOpsPerSecond() - 1e9) < 1e6,
+                "Average time and throughput should agree");
+        assertTrue(allocating.getBytesPerOp() < 0 || allocating.getBytesPerOp() >= 128, "A 16-long array is at least 128 bytes");
+
+        List<Board> corpus = RulesBenchmark.loadCorpus(Path.of("src/input/games.json"));
+        assertTrue(!corpus.isEmpty(), "Stored games should give a corpus");
+        Set<String> snapshots = new HashSet<>();
+        for (Board board : corpus) {
+            assertTrue(snapshots.add(board.snapshot(null)), "Corpus positions should be distinct");
+        }
+        List<BenchmarkResult> results = RulesBenchmark.run(corpus, new Harness(0, 1, 10));
+        assertEquals(6, results.size(), "Every rules benchmark should report");
+    }
+
+    private static void testPersistenceBenchmark() throws Exception {
+        Map<Integer, Game> store = PersistenceBenchmark.syntheticStore(40, 7);
+        assertEquals(40, store.size(), "Synthetic store size");
+        assertTrue(!store.get(1).isBodyLoaded(), "Synthetic games should stay packed until used");
+        Set<Board> boards = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<ScoreLedger> ledgers = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Game game : store.values()) {
+            assertTrue(boards.add(game.getBoard()), "Synthetic games should not share a board");
+            assertTrue(ledgers.add(game.getScoreLedger()), "Synthetic games should not share a score ledger");
+            int plies = game.getMoves().size();
+            assertTrue(plies <= PersistenceBenchmark.MAX_PLIES, "Synthetic games should stay within the ply limit");
+            assertEquals(2, game.getPlayers().size(), "Synthetic games have two players");
+            assertEquals(Colors.values()[plies % 2], game.getCurrentPlayer().getColor(), "Side to move follows the moves");
+        }
+
+        Path directory = Files.createTempDirectory("persistence-test");
+        try {
+            PersistenceResult result = PersistenceBenchmark.run(40, directory);
+            assertEquals(40, result.getGames(), "Benchmark should load every saved game");
+            assertTrue(result.getBytesPerGame() > 500, "A stored game holds at least its board");
+            assertTrue(!Files.exists(directory.resolve("games-40.json")), "Benchmark should remove its store");
+        } finally {
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static void testTournament() throws Exception {
+        MatchStats stats = new MatchStats();
+        for (int i = 0; i < 600; i++) {
+            stats.add(i % 10 < 6 ? 1 : 0);
+        }
+        assertTrue(Math.abs(stats.elo() - 70.4) < 0.1, "A 60% score is about +70 Elo");
+        assertTrue(stats.eloError() > 15 && stats.eloError() < 50, "600 games still leave an error bar of tens of Elo");
+        assertEquals(0.0, MatchStats.elo(0.5), "An even score is no difference");
+
+        Sprt sprt = new Sprt(0, 10, 0.05, 0.05);
+        assertEquals(Sprt.Decision.ACCEPT_H1, sprt.decide(stats), "A clear 60% accepts H1");
+        MatchStats losing = new MatchStats();
+        for (int i = 0; i < 600; i++) {
+            losing.add(i % 10 < 4 ? 1 : 0);
+        }
+        assertEquals(Sprt.Decision.ACCEPT_H0, sprt.decide(losing), "A clear 40% accepts H0");
+        MatchStats few = new MatchStats();
+        few.add(1);
+        few.add(0.5);
+        assertEquals(Sprt.Decision.CONTINUE, sprt.decide(few), "Two games decide nothing");
+
+        EngineSpec spec = EngineSpec.parse("classical,depth=1");
+        Tournament tournament = new Tournament(spec, spec, List.of(Tournament.OPENINGS[0], Bench.POSITIONS[1]),
+                new Sprt(0, 5, 0.05, 0.05), 4, 1, 16);
+        StringWriter log = new StringWriter();
+        MatchStats result = tournament.run(log, false);
+        assertEquals(4, result.getGames(), "Tournament should play every game of a short match");
+        String[] lines = log.toString().split("\\R");
+        assertEquals(5, lines.length, "One header and one line per game");
+        assertTrue(lines[1].startsWith("1 0 A B ") && lines[2].startsWith("2 0 B A "), "Pairs swap colors: " + lines[1]);
+    }
+
+    private static void testBenchmarkResults() throws Exception {
+        BenchmarkRun baseline = new BenchmarkRun("base", 1000L, "test", List.of(
+                new Measurement("perft", 1_000_000, 10_000, "nodes/s", true),
+                new Measurement("load", 200, 0, "ms", false),
+                new Measurement("save", 100, 0, "ms", false),
+                new Measurement("noisy", 1000, 100, "ops/s", true),
+                new Measurement("dropped", 5, 0, "ms", false),
+                new Measurement("still free", 0, 0, "B/op", false),
+                new Measurement("now allocating", 0, 0, "B/op", false)));
+        BenchmarkRun candidate = new BenchmarkRun("next", 2000L, "test", List.of(
+                new Measurement("perft", 1_200_000, 10_000, "nodes/s", true),
+                new Measurement("load", 260, 0, "ms", false),
+                new Measurement("save", 103, 0, "ms", false),
+                new Measurement("noisy", 850, 100, "ops/s", true),
+                new Measurement("added", 1, 0, "B/op", false),
+                new Measurement("still free", 0, 0, "B/op", false),
+                new Measurement("now allocating", 64, 0, "B/op", false)));
+
+        Path file = Files.createTempFile("benchmark-results", ".json");
+        try {
+            Files.delete(file);
+            ResultsFile.append(file, baseline);
+            ResultsFile.append(file, candidate);
+            List<BenchmarkRun> runs = ResultsFile.read(file);
+            assertEquals(2, runs.size(), "Both runs should be stored");
+            assertEquals("next", runs.get(1).getLabel(), "Runs keep their order");
+            assertEquals(260.0, runs.get(1).find("load").getValue(), "Values survive the round trip");
+            assertEquals(false, runs.get(1).find("load").isHigherBetter(), "Direction survives the round trip");
+
+            Map<String, Comparison.Verdict> verdicts = new HashMap<>();
+            Comparison comparison = new Comparison(runs.get(0), runs.get(1), Comparison.NOISE_PERCENT);
+            for (Comparison.Row row : comparison.getRows()) {
+                verdicts.put(row.getName(), row.getVerdict());
+            }
+            assertEquals(Comparison.Verdict.IMPROVEMENT, verdicts.get("perft"), "Faster perft is an improvement");
+            assertEquals(Comparison.Verdict.REGRESSION, verdicts.get("load"), "Slower loading is a regression");
+            assertEquals(Comparison.Verdict.UNCHANGED, verdicts.get("save"), "3% is within the noise");
+            assertEquals(Comparison.Verdict.UNCHANGED, verdicts.get("noisy"), "A drop within the measured spread is noise");
+            assertEquals(Comparison.Verdict.NEW, verdicts.get("added"), "New benchmarks are reported");
+            assertEquals(Comparison.Verdict.MISSING, verdicts.get("dropped"), "Missing benchmarks are reported");
+            assertEquals(Comparison.Verdict.UNCHANGED, verdicts.get("still free"), "Zero against zero is unchanged");
+            assertEquals(Comparison.Verdict.REGRESSION, verdicts.get("now allocating"), "Allocating from a zero baseline is a regression");
+            assertTrue(!comparison.toString().contains("NaN") && !comparison.toString().contains("Infinity"),
+                    "A zero baseline should not print a percentage");
+            assertTrue(comparison.hasRegressions(), "Comparison should flag the regression");
+
+            Files.writeString(file, "{\"version\": " + (ResultsFile.VERSION + 1) + ", \"runs\": []}");
+            boolean refused = false;
+            try {
+                ResultsFile.read(file);
+            } catch (IOException e) {
+                refused = true;
+            }
+            assertTrue(refused, "A newer format version should be refused");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void testLazyGameBodies() throws Exception {
+        Game game = new Game();
+        game.setId(5);
+        game.setPlayers(Arrays.asList(new Player("W", Colors.WHITE), new Player("B", Colors.BLACK)));
+        Board board = new Board();
+        board.initialize();
+        game.setBoard(board);
+        List<Move> moves = new ArrayList<>();
+        moves.add(new Move(Colors.WHITE, pos("E2"), pos("E4")));
+        moves.add(new Move(Colors.BLACK, pos("E7"), pos("E5")));
+        game.setMoves(moves);
+
+        Path gamesFile = Files.createTempFile("games", ".json");
+        Map<Integer, Game> games = new HashMap<>();
+        games.put(game.getId(), game);
+        JsonReaderUtil.writeGames(gamesFile, games);
+        Game loaded = JsonReaderUtil.readGamesAsMap(gamesFile).get(5L);
+        Files.deleteIfExists(gamesFile);
+
+        assertTrue(!loaded.isBodyLoaded(), "Board and moves should not be parsed while indexing");
+        assertEquals(2, loaded.getMoveCount(), "The move count should be known without the body");
+        assertEquals(32, loaded.getBoard().getPieces().size(), "The board should load on first use");
+        assertTrue(loaded.isBodyLoaded(), "Reading the board should load the body");
+        assertEquals(2, loaded.getMoves().size(), "Moves should load with the board");
+    }
+
+    private static void testStreamingGameReader() throws Exception {
+        JsonStreamReader tokens = new JsonStreamReader(new StringReader("{\"a\": [1, -2.5e3, true, null], \"b\\/\": \"x\\u0041\\n\", \"c\": {\"d\": []}}"));
+        tokens.beginObject();
+        assertEquals("a", tokens.nextName(), "Names should be read");
+        tokens.beginArray();
+        assertEquals(JsonStreamReader.Token.NUMBER, tokens.peek(), "Numbers should be recognised");
+        assertEquals("1", tokens.nextString(), "Integers keep their text");
+        assertEquals("-2.5e3", tokens.nextString(), "Exponents keep their text");
+        assertEquals("true", tokens.nextString(), "Booleans read as text");
+        assertEquals(null, tokens.nextString(), "Null reads as null");
+        tokens.endArray();
+        assertEquals("b/", tokens.nextName(), "Escaped solidus should be unescaped");
+        assertEquals("xA\n", tokens.nextString(), "Unicode and newline escapes should be unescaped");
+        assertEquals("c", tokens.nextName(), "Names after a string should be read");
+        tokens.skipValue();
+        tokens.endObject();
+        assertEquals(JsonStreamReader.Token.END_DOCUMENT, tokens.peek(), "Skipping should consume nested values");
+
+        // Keys in any order, unknown keys, a game without an id and a game with a bad square
+        Path gamesFile = Files.createTempFile("games", ".json");
+        Files.writeString(gamesFile, "[{\"moves\": [{\"to\": \"e4\", \"from\": \"E2\", \"playerColor\": \"WHITE\", \"note\": [1, {}]}],"
+                + " \"extra\": {\"nested\": [[]]}, \"board\": [{\"type\": \"K\", \"color\": \"WHITE\", \"position\": \"E1\"},"
+                + " {\"type\": \"P\", \"color\": \"BLACK\", \"position\": \"D7\"}],"
+                + " \"score\": {\"WHITE\": 3, \"BLACK\": \"2\"}, \"id\": \"12\","
+                + " \"players\": [{\"email\": \"a@b.c\", \"color\": \"WHITE\"}, {\"email\": \"computer\", \"color\": \"BLACK\"}]},"
+                + " {\"players\": []},"
+                + " {\"id\": 13, \"board\": [{\"type\": \"K\", \"color\": \"WHITE\", \"position\": \"Z9\"}], \"moves\": []}]");
+        List<Game> streamed = new ArrayList<>();
+        try {
+            JsonReaderUtil.readGames(gamesFile, streamed::add);
+        } finally {
+            Files.deleteIfExists(gamesFile);
+        }
+        assertEquals(2, streamed.size(), "Games without an id should be skipped");
+        Game game = streamed.get(0);
+        assertEquals(12, game.getId(), "Ids stored as strings should be read");
+        assertEquals("a@b.c", game.getPlayers().get(0).getName(), "Players should be read");
+        assertEquals(3, game.getScoreLedger().getPoints(Colors.WHITE), "Scores should be read");
+        assertEquals(2, game.getScoreLedger().getPoints(Colors.BLACK), "Scores stored as strings should be read");
+        assertEquals(1, game.getMoveCount(), "The move count should be known before the body is unpacked");
+        assertEquals(2, game.getBoard().getPieces().size(), "Pieces should be unpacked");
+        Piece pawn = game.getBoard().getPieceAt(pos("D7"));
+        assertTrue(pawn instanceof Pawn && ((Pawn) pawn).isFirstMove(), "Pawns on their start square keep their first move");
+        assertEquals("E4", game.getMoves().get(0).getTo().toString(), "Squares should be normalised as before");
+        assertThrows(IllegalStateException.class, () -> streamed.get(1).getBoard(), "A bad square should fail when the game is opened");
+    }
+
+    private static void testStreamingGameWriter() throws Exception {
+        StringWriter text = new StringWriter();
+        JsonStreamWriter writer = new JsonStreamWriter(text);
+        writer.beginObject().name("a").beginArray().value(1).value("x\"/\n\u0001").value(true).endArray();
+        writer.name("b").beginObject().endObject().name("c").value((String) null).endObject();
+        assertEquals("{\"a\":[1,\"x\\\"\\/\\n\\u0001\",true],\"b\":{},\"c\":null}", text.toString(),
+                "Commas and escapes should follow json-simple");
+
+        Game game = new Game();
+        game.setId(3);
+        game.setPlayers(Arrays.asList(new Player("W", Colors.WHITE), new Player("B", Colors.BLACK)));
+        game.setBoard(FenUtil.parseBoard("4k3/3p4/8/8/8/8/8/4K2R w"));
+        List<Move> moves = new ArrayList<>();
+        Move capture = new Move(Colors.WHITE, pos("H1"), pos("H8"));
+        capture.setCapturedPiece(new Rook(Colors.BLACK, pos("H8")));
+        moves.add(capture);
+        game.setMoves(moves);
+        Map<Integer, Game> games = new HashMap<>();
+        games.put(3, game);
+
+        Path gamesFile = Files.createTempFile("games", ".json");
+        Path copyFile = Files.createTempFile("games", ".json");
+        try {
+            JsonReaderUtil.writeGames(gamesFile, games);
+            Game unopened = JsonReaderUtil.readGamesAsMap(gamesFile).get(3L);
+            games.put(3, unopened);
+            JsonReaderUtil.writeGames(copyFile, games);
+            assertTrue(!unopened.isBodyLoaded(), "Saving should not unpack a game that was never opened");
+            assertEquals(Files.readString(gamesFile).length(), Files.readString(copyFile).length(),
+                    "A packed body should be written back as it was read");
+
+            Game copy = JsonReaderUtil.readGamesAsMap(copyFile).get(3L);
+            assertEquals(4, copy.getBoard().getPieces().size(), "Pieces should survive a save of the packed body");
+            assertEquals("R", String.valueOf(copy.getMoves().get(0).getCapturedPiece().type()), "Captures should survive it too");
+            assertEquals(Colors.BLACK, copy.getMoves().get(0).getCapturedPiece().getColor(), "Captured colour should survive it");
+
+            // A game with a bad square is written back as it was read, and the other games still save
+            Files.writeString(gamesFile, "[{\"id\": 4, \"board\": [{\"type\": \"K\", \"color\": \"WHITE\", \"position\": \"Z9\"},"
+                    + " {\"type\": \"K\", \"color\": \"BLACK\", \"position\": \"E8\"}],"
+                    + " \"moves\": [{\"playerColor\": \"BLACK\", \"from\": \"E8\", \"to\": \"E7\", \"captured\": {\"type\": \"X\"}}]}]");
+            games.put(4, JsonReaderUtil.readGamesAsMap(gamesFile).get(4L));
+            JsonReaderUtil.writeGames(copyFile, games);
+            Map<Long, Game> saved = JsonReaderUtil.readGamesAsMap(copyFile);
+            assertEquals(2, saved.size(), "A bad game should not stop the others being saved");
+            assertEquals(4, saved.get(3L).getBoard().getPieces().size(), "The good game should be saved");
+            assertEquals(1, saved.get(4L).getMoveCount(), "The bad game should keep its moves");
+            assertThrows(IllegalStateException.class, () -> saved.get(4L).getBoard(), "The bad game should still fail when opened");
+            String savedText = Files.readString(copyFile);
+            assertTrue(savedText.contains("\"Z9\"") && savedText.contains("\"E8\"") && savedText.contains("\"X\""),
+                    "The bad game's fields should be written back unchanged");
+
+            // Trying to open it must not cost the stored fields either
+            games.put(4, saved.get(4L));
+            JsonReaderUtil.writeGames(copyFile, games);
+            String resavedText = Files.readString(copyFile);
+            assertTrue(resavedText.contains("\"Z9\"") && resavedText.contains("\"E8\"") && resavedText.contains("\"X\""),
+                    "A bad game that failed to open should still be written back unchanged");
+            assertEquals(1, JsonReaderUtil.readGamesAsMap(copyFile).get(4L).getMoveCount(), "Its moves should survive as well");
+        } finally {
+            Files.deleteIfExists(gamesFile);
+            Files.deleteIfExists(copyFile);
+        }
+    }
+
+    private static void testEngineSeesGameRepetitions() throws Exception {
+        Game game = new Game();
+        game.setPlayers(Arrays.asList(new Player("W", Colors.WHITE), new Player("B", Colors.BLACK)));
+        game.getBoard().initialize();
+        game.setCurrentPlayerColor("WHITE");
+        game.registerBoardState();
+        for (String move : new String[] {"G1F3", "G8F6", "F3G1", "F6G8"}) {
+            playQuietMove(game, move);
+        }
+
+        assertEquals(5, game.getPositionHistory().size(), "Every registered position should be recorded");
+        assertTrue(EngineBoard.fromGame(game).isRepetition(), "The start position has been seen before in this game");
+        assertTrue(!EngineBoard.fromBoard(game.getBoard(), Colors.WHITE).isRepetition(), "A bare board has no history");
+
+        playQuietMove(game, "G1F3");
+        assertTrue(EngineBoard.fromGame(game).isRepetition(), "Black to move after Nf3 has been seen before too");
+    }
+
+    private static void playQuietMove(Game game, String move) throws Exception {
+        Player player = game.getCurrentPlayer();
+        Position from = pos(move.substring(0, 2));
+        Position to = pos(move.substring(2));
+        player.makeMove(from, to, game.getBoard());
+        game.addMove(player, from, to, null);
+        game.switchPlayer();
+        game.registerBoardState();
+    }
+
+    private static EngineBoard tableBoard(String fen) throws Exception {
+        return EngineBoard.fromBoard(FenUtil.parseBoard(fen), FenUtil.parseSideToMove(fen));
+    }
+
+    private static int countEngineLegalMoves(EngineBoard engineBoard) {
+        int[] moves = new int[EngineBoard.MAX_MOVES];
+        int count = engineBoard.generateMoves(moves, 0, false);
+        int legal = 0;
+        for (int i = 0; i < count; i++) {
+            if (engineBoard.makeMove(moves[i])) {
+                legal++;
+                engineBoard.unmakeMove(moves[i]);
+            }
+        }
+        return legal;
+    }
+
+    private static int countBoardLegalMoves(Board board, Colors color) throws InvalidMoveException {
+        int legal = 0;
+        for (ChessPair<Position, Piece> pair : board.getPieces()) {
+            if (pair.getValue().getColor() == color) {
+                legal += board.getLegalMoves(pair.getKey(), color).size();
+            }
+        }
+        return legal;
+    }
+
+    private static void testEngineMoveGenerationMatchesBoard() throws Exception {
+        Board board = new Board();
+        board.initialize();
+        EngineBoard start = EngineBoard.fromBoard(board, Colors.WHITE);
+        assertEquals(20, countEngineLegalMoves(start), "Engine should find 20 moves in the start position");
+
+        Board pinned = new Board();
+        pinned.getPieces().clear();
+        pinned.getPieces().add(pair(pos("E1"), wKing("E1")));
+        pinned.getPieces().add(pair(pos("E2"), new Rook(Colors.WHITE, pos("E2"))));
+        pinned.getPieces().add(pair(pos("E8"), bKing("E8")));
+        pinned.getPieces().add(pair(pos("E7"), new Rook(Colors.BLACK, pos("E7"))));
+        Pawn advancedPawn = new Pawn(Colors.BLACK, pos("C4"));
+        advancedPawn.setFirstMove(false);
+        pinned.getPieces().add(pair(pos("C4"), advancedPawn));
+        pinned.getPieces().add(pair(pos("D2"), new Pawn(Colors.WHITE, pos("D2"))));
+        for (Colors color : new Colors[]{Colors.WHITE, Colors.BLACK}) {
+            EngineBoard engineBoard = EngineBoard.fromBoard(pinned, color);
+            long hashBefore = engineBoard.hash();
+            assertEquals(countBoardLegalMoves(pinned, color), countEngineLegalMoves(engineBoard),
+                    "Engine and board legal move counts should agree for " + color);
+            assertEquals(hashBefore, engineBoard.hash(), "Make/unmake should restore the position hash");
+        }
+    }
+
+    private static void testEngineFindsMateInOne() throws Exception {
+        Board board = new Board();
+        board.getPieces().clear();
+        board.getPieces().add(pair(pos("G1"), wKing("G1")));
+        board.getPieces().add(pair(pos("A1"), new Rook(Colors.WHITE, pos("A1"))));
+        board.getPieces().add(pair(pos("G8"), bKing("G8")));
+        for (char c = 'F'; c <= 'H'; c++) {
+            board.getPieces().add(pair(pos(c + "7"), new Pawn(Colors.BLACK, pos(c + "7"))));
+        }
+
+        SearchResult result = new Engine().think(board, Colors.WHITE, new SearchLimits(4, 0));
+        assertEquals("A1", result.getFrom().toString(), "Engine should move the rook");
+        assertEquals("A8", result.getTo().toString(), "Engine should deliver back-rank mate");
+        assertTrue(!result.getPrincipalVariation().isEmpty(), "Principal variation should not be empty");
+        Move firstPvMove = result.getPrincipalVariation().get(0);
+        assertEquals(Colors.WHITE, firstPvMove.getPlayerColor(), "Principal variation should start with the mover");
+        assertEquals(result.getTo(), firstPvMove.getTo(), "Principal variation should start with the best move");
+    }
+
+    private static void testPonderReuseAndDiscard() throws Exception {
+        Engine engine = new Engine();
+        SearchLimits limits = new SearchLimits(4, 0);
+        Board board = new Board();
+        board.initialize();
+
+        SearchResult first = engine.think(board, Colors.WHITE, limits);
+        assertTrue(first.getPrincipalVariation().size() >= 2, "Search should predict a reply");
+        board.movePiece(first.getFrom(), first.getTo(), Colors.WHITE, false);
+        Move predicted = first.getPrincipalVariation().get(1);
+
+        EngineExecutor executor = new EngineExecutor(engine, Runnable::run);
+        Ponderer ponderer = new Ponderer(executor);
+        ponderer.start(board, Colors.BLACK, first.getPrincipalVariation(), limits);
+        Board hitBoard = new Board();
+        hitBoard.initialize();
+        hitBoard.movePiece(first.getFrom(), first.getTo(), Colors.WHITE, false);
+        hitBoard.movePiece(predicted.getFrom(), predicted.getTo(), Colors.BLACK, false);
+        Future<SearchResult> pondered = ponderer.takeResult(hitBoard, Colors.WHITE);
+        assertTrue(pondered != null && pondered.get().hasMove(), "Predicted reply should reuse the ponder search");
+
+        ponderer.start(board, Colors.BLACK, first.getPrincipalVariation(), limits);
+        Position otherFrom = predicted.getFrom().equals(pos("A7")) ? pos("H7") : pos("A7");
+        Position otherTo = otherFrom.equals(pos("A7")) ? pos("A6") : pos("H6");
+        board.movePiece(otherFrom, otherTo, Colors.BLACK, false);
+        assertTrue(ponderer.takeResult(board, Colors.WHITE) == null, "Unexpected reply should discard the ponder search");
+        assertTrue(!ponderer.isPondering(), "Discarded ponder search should be stopped");
+        executor.shutdown();
+    }
+
+    private static void testEngineExecutorCancellation() throws Exception {
+        Board board = new Board();
+        board.initialize();
+        EngineExecutor executor = new EngineExecutor(new Engine(), Runnable::run);
+
+        AtomicReference<SearchResult> published = new AtomicReference<>();
+        Future<SearchResult> quick = executor.submit(EngineBoard.fromBoard(board, Colors.WHITE),
+                new SearchLimits(2, 0), published::set);
+        SearchResult result = quick.get();
+        assertTrue(result.hasMove() && published.get() == result, "Finished search should be published");
+
+        published.set(null);
+        Future<SearchResult> deep = executor.submit(EngineBoard.fromBoard(board, Colors.WHITE),
+                new SearchLimits(30, 0), published::set);
+        Future<SearchResult> queued = executor.submit(EngineBoard.fromBoard(board, Colors.WHITE),
+                new SearchLimits(30, 0), published::set);
+        executor.cancelAll();
+        assertTrue(deep.isCancelled() && queued.isCancelled(), "Cancelled searches should report cancellation");
+
+        // The worker is free again once the cancelled search has noticed its token
+        Future<SearchResult> after = executor.submit(EngineBoard.fromBoard(board, Colors.BLACK),
+                new SearchLimits(1, 0), null);
+        assertTrue(after.get().hasMove(), "Worker should run new searches after a cancel");
+        assertTrue(published.get() == null, "Cancelled searches must not be published");
+
+        long workers = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("engine-worker")).count();
+        assertTrue(workers <= 2, "Each executor should own a single worker thread");
+
+        AtomicReference<String> ranOn = new AtomicReference<>();
+        Future<SearchResult> pending = executor.submit(EngineBoard.fromBoard(board, Colors.WHITE),
+                new SearchLimits(2, 0), null);
+        executor.execute(() -> ranOn.set(pending.isDone() ? Thread.currentThread().getName() : "before the search"));
+        executor.submit(EngineBoard.fromBoard(board, Colors.WHITE), new SearchLimits(1, 0), null).get();
+        assertEquals("engine-worker", ranOn.get(), "Other engine work should run on the worker after the queued search");
+        executor.shutdown();
     }
 }
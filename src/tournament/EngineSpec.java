@@ -0,0 +1,76 @@
+package tournament;
+
+import engine.ClassicalEvaluator;
+import engine.Engine;
+import engine.Search;
+import engine.SearchLimits;
+import model.Difficulty;
+import model.EvaluatorType;
+
+// One tournament participant, written as evaluator[,depth=N][,nodes=N][,movetime=MS][,lazy=N],
+// e.g. "classical,nodes=20000" or "nnue,movetime=100". Without any limit it plays at MEDIUM strength.
+public class EngineSpec {
+    private final String text;
+    private final EvaluatorType evaluatorType;
+    private final int maxDepth;
+    private final long maxNodes;
+    private final long moveMillis;
+    private final int lazyMargin;
+
+    private EngineSpec(String text, EvaluatorType evaluatorType, int maxDepth, long maxNodes, long moveMillis, int lazyMargin) {
+        this.text = text;
+        this.evaluatorType = evaluatorType;
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+        this.moveMillis = moveMillis;
+        this.lazyMargin = lazyMargin;
+    }
+
+    public static EngineSpec parse(String text) {
+        String[] parts = text.trim().split(",");
+        EvaluatorType evaluatorType = EvaluatorType.fromString(parts[0]);
+        int depth = 0;
+        long nodes = 0;
+        long moveMillis = 0;
+        int lazyMargin = ClassicalEvaluator.LAZY_MARGIN;
+        for (int i = 1; i < parts.length; i++) {
+            String[] option = parts[i].trim().split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Expected key=value in engine spec: " + parts[i]);
+            }
+            switch (option[0].trim().toLowerCase()) {
+                case "depth" -> depth = Integer.parseInt(option[1].trim());
+                case "nodes" -> nodes = Long.parseLong(option[1].trim());
+                case "movetime" -> moveMillis = Long.parseLong(option[1].trim());
+                case "lazy" -> lazyMargin = Integer.parseInt(option[1].trim());
+                default -> throw new IllegalArgumentException("Unknown engine option: " + option[0]);
+            }
+        }
+        if (depth == 0 && nodes == 0 && moveMillis == 0) {
+            depth = Difficulty.MEDIUM.getMaxDepth();
+            nodes = Difficulty.MEDIUM.getMaxNodes();
+        } else if (depth == 0) {
+            depth = Search.MAX_PLY - 1;
+        }
+        return new EngineSpec(text.trim(), evaluatorType, depth, nodes, moveMillis, lazyMargin);
+    }
+
+    public Engine createEngine() {
+        return new Engine(evaluatorType == EvaluatorType.CLASSICAL
+                ? new ClassicalEvaluator(lazyMargin) : Engine.createEvaluator(evaluatorType));
+    }
+
+    public SearchLimits getLimits() {
+        return new SearchLimits(maxDepth, maxNodes);
+    }
+
+    // 0 when moves are not timed
+    public long getMoveMillis() {
+        return moveMillis;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
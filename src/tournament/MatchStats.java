@@ -0,0 +1,85 @@
+package tournament;
+
+// Wins, draws and losses of one engine against the other, with the Elo difference they imply
+public class MatchStats {
+    private static final double Z_95 = 1.959964;
+
+    private int wins;
+    private int draws;
+    private int losses;
+
+    // score is 1, 0.5 or 0 from the engine's side
+    public void add(double score) {
+        if (score > 0.5) {
+            wins++;
+        } else if (score < 0.5) {
+            losses++;
+        } else {
+            draws++;
+        }
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    public int getLosses() {
+        return losses;
+    }
+
+    public int getGames() {
+        return wins + draws + losses;
+    }
+
+    public double getScore() {
+        return getGames() == 0 ? 0.5 : (wins + 0.5 * draws) / getGames();
+    }
+
+    // Variance of a single game's score
+    public double getVariance() {
+        int games = getGames();
+        if (games == 0) {
+            return 0;
+        }
+        double score = getScore();
+        return (wins * (1 - score) * (1 - score) + draws * (0.5 - score) * (0.5 - score) + losses * score * score) / games;
+    }
+
+    public double elo() {
+        return elo(getScore());
+    }
+
+    // Half the width of the 95% confidence interval, in Elo
+    public double eloError() {
+        int games = getGames();
+        if (games < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double margin = Z_95 * Math.sqrt(getVariance() / games);
+        return (elo(getScore() + margin) - elo(getScore() - margin)) / 2;
+    }
+
+    public static double elo(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return 400 * Math.log10(score / (1 - score));
+    }
+
+    public static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games: +%d =%d -%d, score %.1f%%, Elo %+.1f +- %.1f",
+                getGames(), wins, draws, losses, 100 * getScore(), elo(), eloError());
+    }
+}
@@ -0,0 +1,60 @@
+package tournament;
+
+// Sequential probability ratio test between H0: the Elo difference is elo0 and H1: it is elo1.
+// The log-likelihood ratio uses the usual normal approximation on the game scores, so the test can be
+// checked after every game and stops as soon as either hypothesis is accepted at the chosen error rates.
+public class Sprt {
+    public enum Decision {
+        CONTINUE, ACCEPT_H0, ACCEPT_H1
+    }
+
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+
+    // alpha is the chance of accepting H1 when H0 holds, beta that of accepting H0 when H1 holds
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0) {
+            throw new IllegalArgumentException("elo1 must be above elo0");
+        }
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    public double llr(MatchStats stats) {
+        double variance = stats.getVariance();
+        if (stats.getGames() == 0 || variance == 0) {
+            return 0;
+        }
+        double s0 = MatchStats.expectedScore(elo0);
+        double s1 = MatchStats.expectedScore(elo1);
+        return stats.getGames() * (s1 - s0) * (2 * stats.getScore() - s0 - s1) / (2 * variance);
+    }
+
+    public Decision decide(MatchStats stats) {
+        double llr = llr(stats);
+        if (llr >= upperBound) {
+            return Decision.ACCEPT_H1;
+        }
+        if (llr <= lowerBound) {
+            return Decision.ACCEPT_H0;
+        }
+        return Decision.CONTINUE;
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SPRT [%.1f, %.1f]", elo0, elo1);
+    }
+}
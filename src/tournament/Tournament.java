@@ -0,0 +1,326 @@
+package tournament;
+
+import engine.Engine;
+import engine.EngineBoard;
+import engine.SearchResult;
+import exceptions.InvalidCommandException;
+import exceptions.InvalidMoveException;
+import model.Colors;
+import model.Game;
+import model.Player;
+import model.Position;
+import pieces.Piece;
+import util.FenUtil;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Headless engine-vs-engine match on model.Game, spread over a thread pool. Every opening is played twice
+// with colors swapped, and results are counted from engine A's side until the SPRT decides or the game
+// limit is reached. Each game is logged as one line: number, opening, white, black, result, plies, reason, moves.
+// Usage: Tournament --a SPEC --b SPEC [--games N] [--threads N] [--openings FILE] [--elo0 E] [--elo1 E]
+//                   [--alpha A] [--beta B] [--maxPlies N] [--log FILE]
+// SPEC is described in EngineSpec; an openings file holds one FEN or one list of moves like "e2e4 e7e5" per line.
+public class Tournament {
+    public static final String[] OPENINGS = {
+        "e2e4 e7e5 g1f3 b8c6",
+        "e2e4 c7c5 g1f3 d7d6",
+        "e2e4 e7e6 d2d4 d7d5",
+        "e2e4 c7c6 d2d4 d7d5",
+        "e2e4 d7d5 e4d5 d8d5",
+        "e2e4 g7g6 d2d4 f8g7",
+        "e2e4 e7e5 f1c4 g8f6",
+        "e2e4 e7e5 g1f3 g8f6",
+        "d2d4 d7d5 c2c4 e7e6",
+        "d2d4 d7d5 c2c4 c7c6",
+        "d2d4 g8f6 c2c4 g7g6",
+        "d2d4 g8f6 c2c4 e7e6",
+        "c2c4 e7e5 b1c3 g8f6",
+        "g1f3 d7d5 g2g3 g8f6",
+        "b2b3 e7e5 c1b2 b8c6",
+        "f2f4 d7d5 g1f3 g8f6"
+    };
+    public static final int MAX_GAMES = 2000;
+    public static final int MAX_PLIES = 400;
+
+    private final EngineSpec engineA;
+    private final EngineSpec engineB;
+    private final List<String> openings;
+    private final Sprt sprt;
+    private final int maxGames;
+    private final int threads;
+    private final int maxPlies;
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private final ScheduledExecutorService timer;
+    private final ThreadLocal<Engine[]> engines;
+    private Sprt.Decision decision = Sprt.Decision.CONTINUE;
+
+    public Tournament(EngineSpec engineA, EngineSpec engineB, List<String> openings, Sprt sprt,
+                      int maxGames, int threads, int maxPlies) {
+        this.engineA = engineA;
+        this.engineB = engineB;
+        this.openings = new ArrayList<>(openings);
+        this.sprt = sprt;
+        this.maxGames = maxGames;
+        this.threads = Math.max(1, threads);
+        this.maxPlies = maxPlies;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "tournament-timer"));
+        // Every worker keeps its own pair of engines, as an engine serializes its searches
+        this.engines = ThreadLocal.withInitial(() -> new Engine[] {engineA.createEngine(), engineB.createEngine()});
+    }
+
+    public static void main(String[] args) throws Exception {
+        EngineSpec engineA = null;
+        EngineSpec engineB = null;
+        List<String> openings = Arrays.asList(OPENINGS);
+        int maxGames = MAX_GAMES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxPlies = MAX_PLIES;
+        double elo0 = 0;
+        double elo1 = 5;
+        double alpha = 0.05;
+        double beta = 0.05;
+        Path log = Paths.get("tournament.log");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--a" -> engineA = EngineSpec.parse(value);
+                case "--b" -> engineB = EngineSpec.parse(value);
+                case "--games" -> maxGames = Integer.parseInt(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--openings" -> openings = readOpenings(Paths.get(value));
+                case "--elo0" -> elo0 = Double.parseDouble(value);
+                case "--elo1" -> elo1 = Double.parseDouble(value);
+                case "--alpha" -> alpha = Double.parseDouble(value);
+                case "--beta" -> beta = Double.parseDouble(value);
+                case "--maxPlies" -> maxPlies = Integer.parseInt(value);
+                case "--log" -> log = Paths.get(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (engineA == null || engineB == null) {
+            System.out.println("Usage: Tournament --a SPEC --b SPEC [--games N] [--threads N] [--openings FILE] "
+                    + "[--elo0 E] [--elo1 E] [--alpha A] [--beta B] [--maxPlies N] [--log FILE]");
+            return;
+        }
+
+        Sprt sprt = new Sprt(elo0, elo1, alpha, beta);
+        Tournament tournament = new Tournament(engineA, engineB, openings, sprt, maxGames, threads, maxPlies);
+        System.out.printf("A: %s, B: %s, %d openings, %d threads, %s, log %s%n",
+                engineA, engineB, openings.size(), threads, sprt, log);
+        MatchStats stats;
+        try (Writer writer = Files.newBufferedWriter(log, StandardCharsets.UTF_8)) {
+            stats = tournament.run(writer, true);
+        }
+        System.out.println("Final: " + stats);
+        System.out.printf("LLR %.2f [%.2f, %.2f]: %s%n", sprt.llr(stats), sprt.getLowerBound(), sprt.getUpperBound(),
+                describe(tournament.getDecision()));
+    }
+
+    public static List<String> readOpenings(Path path) throws IOException {
+        List<String> openings = new ArrayList<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (!line.isBlank() && !line.startsWith("#")) {
+                openings.add(line.trim());
+            }
+        }
+        return openings;
+    }
+
+    // Plays game pairs until the SPRT decides or maxGames is reached; pairs still running at a decision are dropped
+    public MatchStats run(Writer log, boolean progress) throws Exception {
+        MatchStats stats = new MatchStats();
+        BufferedWriter writer = new BufferedWriter(log);
+        writer.write(String.format("# A=%s B=%s %s%n", engineA, engineB, sprt));
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> daemon(runnable, "tournament-worker"));
+        CompletionService<List<GameResult>> completion = new ExecutorCompletionService<>(pool);
+        int pairs = (maxGames + 1) / 2;
+        int submitted = 0;
+        int running = 0;
+        try {
+            while (submitted < pairs && running < 2 * threads) {
+                submit(completion, submitted++);
+                running++;
+            }
+            while (running > 0) {
+                List<GameResult> results = completion.take().get();
+                running--;
+                if (results == null || decision != Sprt.Decision.CONTINUE) {
+                    continue;
+                }
+                for (GameResult result : results) {
+                    if (stats.getGames() == maxGames) {
+                        break;
+                    }
+                    stats.add(result.whiteIsA ? result.whiteScore : 1 - result.whiteScore);
+                    writer.write(result.toLogLine(stats.getGames()));
+                    writer.newLine();
+                }
+                decision = sprt.decide(stats);
+                if (progress && (stats.getGames() % 20 == 0 || decision != Sprt.Decision.CONTINUE)) {
+                    System.out.printf("%s, LLR %.2f%n", stats, sprt.llr(stats));
+                }
+                if (decision != Sprt.Decision.CONTINUE) {
+                    stopped.set(true);
+                } else if (submitted < pairs) {
+                    submit(completion, submitted++);
+                    running++;
+                }
+            }
+        } finally {
+            stopped.set(true);
+            pool.shutdownNow();
+            timer.shutdownNow();
+            writer.flush();
+        }
+        return stats;
+    }
+
+    public Sprt.Decision getDecision() {
+        return decision;
+    }
+
+    private void submit(CompletionService<List<GameResult>> completion, int pair) {
+        int opening = pair % openings.size();
+        completion.submit(() -> {
+            Engine[] pairEngines = engines.get();
+            GameResult first = play(opening, pairEngines[0], engineA, pairEngines[1], engineB, true);
+            GameResult second = first == null ? null : play(opening, pairEngines[1], engineB, pairEngines[0], engineA, false);
+            return second == null ? null : List.of(first, second);
+        });
+    }
+
+    // null when the tournament stopped during the game
+    private GameResult play(int opening, Engine white, EngineSpec whiteSpec, Engine black, EngineSpec blackSpec,
+                            boolean whiteIsA) throws InvalidMoveException, InvalidCommandException {
+        Game game = startGame(openings.get(opening));
+        white.newGame();
+        black.newGame();
+        StringBuilder moves = new StringBuilder();
+        while (true) {
+            Colors toMove = game.getCurrentPlayer().getColor();
+            int plies = game.getMoves().size();
+            if (game.checkForCheckMate()) {
+                return new GameResult(opening, whiteIsA, toMove == Colors.WHITE ? 0 : 1, plies, "checkmate", moves);
+            }
+            if (game.checkForStalemate()) {
+                String reason = game.isThreefoldRepetition() ? "repetition" : "stalemate";
+                return new GameResult(opening, whiteIsA, 0.5, plies, reason, moves);
+            }
+            if (game.getBoard().getPieces().size() == 2) {
+                return new GameResult(opening, whiteIsA, 0.5, plies, "material", moves);
+            }
+            if (plies >= maxPlies) {
+                return new GameResult(opening, whiteIsA, 0.5, plies, "length", moves);
+            }
+            if (stopped.get()) {
+                return null;
+            }
+
+            boolean whiteToMove = toMove == Colors.WHITE;
+            SearchResult result = think(whiteToMove ? white : black, whiteToMove ? whiteSpec : blackSpec, game);
+            if (!result.hasMove()) {
+                throw new IllegalStateException("No move found in a position with legal moves");
+            }
+            playMove(game, result.getFrom(), result.getTo());
+            moves.append(moves.length() > 0 ? " " : "").append(result.getFrom()).append(result.getTo());
+        }
+    }
+
+    private Game startGame(String opening) throws InvalidMoveException, InvalidCommandException {
+        Game game = new Game();
+        List<Player> players = new ArrayList<>();
+        players.add(new Player("computer", Colors.WHITE));
+        players.add(new Player("computer", Colors.BLACK));
+        game.setPlayers(players);
+        if (opening.contains("/")) {
+            game.setBoard(FenUtil.parseBoard(opening));
+            game.setCurrentPlayerColor(FenUtil.parseSideToMove(opening).name());
+        } else {
+            game.getBoard().initialize();
+            game.setCurrentPlayerColor(Colors.WHITE.name());
+            for (String move : opening.split("\\s+")) {
+                playMove(game, new Position(move.substring(0, 2)), new Position(move.substring(2, 4)));
+            }
+        }
+        game.registerBoardState();
+        return game;
+    }
+
+    private static void playMove(Game game, Position from, Position to) throws InvalidMoveException, InvalidCommandException {
+        Player player = game.getCurrentPlayer();
+        Piece captured = game.getBoard().getPieceAt(to);
+        player.makeMove(from, to, game.getBoard());
+        game.addMove(player, from, to, captured);
+        game.switchPlayer();
+        game.registerBoardState();
+    }
+
+    private SearchResult think(Engine engine, EngineSpec spec, Game game) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        ScheduledFuture<?> deadline = spec.getMoveMillis() > 0
+                ? timer.schedule(() -> cancelled.set(true), spec.getMoveMillis(), TimeUnit.MILLISECONDS) : null;
+        try {
+            EngineBoard board = EngineBoard.fromGame(game);
+            return engine.search(board, spec.getLimits(), cancelled);
+        } finally {
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+        }
+    }
+
+    private static String describe(Sprt.Decision decision) {
+        return switch (decision) {
+            case ACCEPT_H1 -> "H1 accepted, A is stronger";
+            case ACCEPT_H0 -> "H0 accepted, A is not stronger";
+            case CONTINUE -> "no decision within the game limit";
+        };
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static class GameResult {
+        final int opening;
+        final boolean whiteIsA;
+        final double whiteScore;
+        final int plies;
+        final String reason;
+        final String moves;
+
+        GameResult(int opening, boolean whiteIsA, double whiteScore, int plies, String reason, CharSequence moves) {
+            this.opening = opening;
+            this.whiteIsA = whiteIsA;
+            this.whiteScore = whiteScore;
+            this.plies = plies;
+            this.reason = reason;
+            this.moves = moves.toString().toLowerCase();
+        }
+
+        String toLogLine(int number) {
+            String result = whiteScore == 1 ? "1-0" : whiteScore == 0 ? "0-1" : "1/2";
+            return String.format("%d %d %s %s %s %d %s %s", number, opening, whiteIsA ? "A" : "B",
+                    whiteIsA ? "B" : "A", result, plies, reason, moves);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package util;
+
+import exceptions.InvalidCommandException;
+import factory.PieceFactory;
+import model.Board;
+import model.ChessPair;
+import model.Colors;
+import model.Position;
+import pieces.Pawn;
+import pieces.Piece;
+
+// Reads and writes the placement and side-to-move fields of FEN; castling, en passant and clocks are ignored
+public final class FenUtil {
+
+    private FenUtil() {
+    }
+
+    public static Board parseBoard(String fen) throws InvalidCommandException {
+        if (fen == null || fen.isBlank()) {
+            throw new InvalidCommandException("Invalid FEN: empty");
+        }
+        String[] ranks = fen.trim().split("\\s+")[0].split("/");
+        if (ranks.length != 8) {
+            throw new InvalidCommandException("Invalid FEN: expected 8 ranks in " + fen);
+        }
+
+        Board board = new Board();
+        board.getPieces().clear();
+        for (int i = 0; i < 8; i++) {
+            int rank = 8 - i;
+            char file = 'A';
+            for (char c : ranks[i].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    file += (char) (c - '0');
+                    continue;
+                }
+                if (file > 'H') {
+                    throw new InvalidCommandException("Invalid FEN: rank " + rank + " is too long");
+                }
+                Colors color = Character.isUpperCase(c) ? Colors.WHITE : Colors.BLACK;
+                String typeName = switch (Character.toUpperCase(c)) {
+                    case 'K' -> "KING";
+                    case 'Q' -> "QUEEN";
+                    case 'R' -> "ROOK";
+                    case 'B' -> "BISHOP";
+                    case 'N' -> "KNIGHT";
+                    case 'P' -> "PAWN";
+                    default -> throw new InvalidCommandException("Invalid FEN piece: " + c);
+                };
+                Position position = new Position(file, rank);
+                Piece piece = PieceFactory.createPiece(typeName, color, position);
+                if (piece instanceof Pawn pawn) {
+                    // Same rule as the JSON loader: only pawns on their start rank may double-push
+                    pawn.setFirstMove((color == Colors.WHITE && rank == 2) || (color == Colors.BLACK && rank == 7));
+                }
+                board.getPieces().add(new ChessPair<>(position, piece));
+                file++;
+            }
+        }
+        return board;
+    }
+
+    public static Colors parseSideToMove(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        return fields.length > 1 && fields[1].equalsIgnoreCase("b") ? Colors.BLACK : Colors.WHITE;
+    }
+
+    public static String toFen(Board board, Colors sideToMove) {
+        StringBuilder fen = new StringBuilder();
+        for (int rank = 8; rank >= 1; rank--) {
+            int empty = 0;
+            for (char file = 'A'; file <= 'H'; file++) {
+                Piece piece = pieceAt(board, file, rank);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                char type = piece.type();
+                fen.append(piece.getColor() == Colors.WHITE ? type : Character.toLowerCase(type));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (rank > 1) {
+                fen.append('/');
+            }
+        }
+        return fen.append(sideToMove == Colors.BLACK ? " b" : " w").toString();
+    }
+
+    private static Piece pieceAt(Board board, char file, int rank) {
+        try {
+            return board.getPieceAt(new Position(file, rank));
+        } catch (InvalidCommandException e) {
+            return null;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package util;
 
-import exceptions.InvalidCommandException;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
@@ -8,16 +7,17 @@ import org.json.simple.parser.ParseException;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
-import factory.PieceFactory;
 import model.*;
 import pieces.*;
 
@@ -66,235 +66,355 @@ public final class JsonReaderUtil {
 
     public static Map<Long, Game> readGamesAsMap(Path path) throws IOException, ParseException {
         Map<Long, Game> map = new HashMap<>();
+        readGames(path, game -> map.put((long) game.getId(), game));
+        return map;
+    }
+
+    // Streams the store one game at a time, so reading it holds no more than the game being built besides
+    // what the consumer keeps. Boards and moves are kept packed until a game is first used.
+    public static void readGames(Path path, Consumer<Game> consumer) throws IOException {
         if (path == null || !Files.exists(path)) {
-            return map;
+            return;
         }
-        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
-            JSONParser parser = new JSONParser();
-            Object root = parser.parse(reader);
-            JSONArray arr = asArray(root);
-            if (arr == null) return map;
-            for (Object item : arr) {
-                JSONObject obj = asObject(item);
-                if (obj == null) {
-                    continue;
-                }
-                long id = asLong(obj.get("id"));
-                if (id < 0) {
+        try (JsonStreamReader reader = new JsonStreamReader(Files.newBufferedReader(path, StandardCharsets.UTF_8))) {
+            if (reader.peek() != JsonStreamReader.Token.BEGIN_ARRAY) {
+                return;
+            }
+            PackedGameBody.Builder body = new PackedGameBody.Builder();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (reader.peek() != JsonStreamReader.Token.BEGIN_OBJECT) {
+                    reader.skipValue();
                     continue;
                 }
-                Game g = new Game();
-                g.setId((int) id);
-
-                JSONArray playersArr = asArray(obj.get("players"));
-                if (playersArr != null) {
-                    List<Player> players = new ArrayList<>();
-                    for (Object pItem : playersArr) {
-                        JSONObject pObj = asObject(pItem);
-                        if (pObj == null) {
-                            continue;
-                        }
-                        String email = asString(pObj.get("email"));
-                        String color = asString(pObj.get("color"));
-                        Colors parsedColor = "BLACK".equalsIgnoreCase(color) ? Colors.BLACK : Colors.WHITE;
-                        players.add(new Player(email, parsedColor));
-                    }
-                    g.setPlayers(players);
+                Game game = readGame(reader, body);
+                if (game != null) {
+                    consumer.accept(game);
                 }
+            }
+            reader.endArray();
+        }
+    }
 
-                g.setCurrentPlayerColor(asString(obj.get("currentPlayerColor")));
-
-                JSONArray boardArr = asArray(obj.get("board"));
-                if (boardArr != null) {
-                    Board board = new Board();
-                    for (Object bItem : boardArr) {
-                        JSONObject bObj = asObject(bItem);
-                        if (bObj == null) {
-                            continue;
-                        }
-
-                        String type = asString(bObj.get("type"));
-                        String colorStr = asString(bObj.get("color"));
-                        String positionStr = asString(bObj.get("position"));
-
-                        Colors color = colorStr.equals("WHITE") ? Colors.WHITE : Colors.BLACK;
-                        Position position = new Position(positionStr);
-
-                        Piece piece = null;
-                        if (type != null && !type.isEmpty()) {
-                            char pieceType = type.charAt(0);
-                            // Use Factory Pattern for piece creation from JSON
-                            String pieceTypeName = switch (pieceType) {
-                                case 'K' -> "KING";
-                                case 'Q' -> "QUEEN";
-                                case 'R' -> "ROOK";
-                                case 'B' -> "BISHOP";
-                                case 'N' -> "KNIGHT";
-                                case 'P' -> "PAWN";
-                                default -> null;
-                            };
-                            if (pieceTypeName != null) {
-                                piece = PieceFactory.createPiece(pieceTypeName, color, position);
-                            }
-                        }
-                        if (piece != null) {
-                            if (piece instanceof Pawn pawn) {
-                                boolean onStart = (color == Colors.WHITE && position.getY() == 2)
-                                        || (color == Colors.BLACK && position.getY() == 7);
-                                pawn.setFirstMove(onStart);
-                            }
-                            board.getPieces().add(new ChessPair<>(position, piece));
-                        }
-                    }
-                    g.setBoard(board);
+    private static Game readGame(JsonStreamReader reader, PackedGameBody.Builder body) throws IOException {
+        long id = -1;
+        List<Player> players = null;
+        String currentPlayerColor = null;
+        String difficulty = null;
+        String evaluator = null;
+        ScoreLedger ledger = null;
+        body.reset();
+
+        // Keys come in any order, so the game is only put together once its object has been read
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id" -> id = readLong(reader, -1);
+                case "players" -> players = readPlayers(reader);
+                case "currentPlayerColor" -> currentPlayerColor = readString(reader);
+                case "difficulty" -> difficulty = readString(reader);
+                case "evaluator" -> evaluator = readString(reader);
+                case "board" -> readBoard(reader, body);
+                case "moves" -> readMoves(reader, body);
+                case "score" -> ledger = readScore(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (id < 0) {
+            return null;
+        }
+
+        Game g = new Game();
+        g.setId((int) id);
+        if (players != null) {
+            g.setPlayers(players);
+        }
+        g.setCurrentPlayerColor(currentPlayerColor);
+        g.setDifficulty(Difficulty.fromString(difficulty));
+        g.setEvaluatorType(EvaluatorType.fromString(evaluator));
+        g.setBodyLoader(body.build(), body.getMoveCount());
+        if (ledger != null) {
+            g.restoreScores(ledger);
+        }
+        return g;
+    }
+
+    private static List<Player> readPlayers(JsonStreamReader reader) throws IOException {
+        if (reader.peek() != JsonStreamReader.Token.BEGIN_ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        List<Player> players = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            Map<String, String> fields = readFlatObject(reader);
+            if (fields == null) {
+                continue;
+            }
+            Colors parsedColor = "BLACK".equalsIgnoreCase(fields.get("color")) ? Colors.BLACK : Colors.WHITE;
+            players.add(new Player(fields.get("email"), parsedColor));
+        }
+        reader.endArray();
+        return players;
+    }
+
+    private static void readBoard(JsonStreamReader reader, PackedGameBody.Builder body) throws IOException {
+        if (reader.peek() != JsonStreamReader.Token.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        body.startBoard();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonStreamReader.Token.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            String type = null;
+            String color = null;
+            String position = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "type" -> type = readString(reader);
+                    case "color" -> color = readString(reader);
+                    case "position" -> position = readString(reader);
+                    default -> reader.skipValue();
                 }
+            }
+            reader.endObject();
+            body.addPiece(type, color, position);
+        }
+        reader.endArray();
+    }
 
-                JSONArray movesArr = asArray(obj.get("moves"));
-                if (movesArr != null) {
-                    List<Move> moves = new ArrayList<>();
-                    for (Object mItem : movesArr) {
-                        JSONObject mObj = asObject(mItem);
-                        if (mObj == null) {
-                            continue;
-                        }
-
-                        String playerColor = asString(mObj.get("playerColor"));
-                        String from = asString(mObj.get("from"));
-                        String to = asString(mObj.get("to"));
-                        Colors parsedColor = "BLACK".equalsIgnoreCase(playerColor) ? Colors.BLACK : Colors.WHITE;
-                        Position fromPos = new Position(from);
-                        Position toPos = new Position(to);
-                        Move move = new Move(parsedColor, fromPos, toPos);
-
-                        JSONObject capturedObj = asObject(mObj.get("captured"));
-                        if (capturedObj != null) {
-                            Piece capturedPiece = buildCapturedPiece(capturedObj, toPos);
-                            if (capturedPiece != null) {
-                                move.setCapturedPiece(capturedPiece);
-                            }
-                        }
-                        moves.add(move);
-                    }
-                    g.setMoves(moves);
+    private static void readMoves(JsonStreamReader reader, PackedGameBody.Builder body) throws IOException {
+        if (reader.peek() != JsonStreamReader.Token.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        body.startMoves();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonStreamReader.Token.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            String playerColor = null;
+            String from = null;
+            String to = null;
+            Map<String, String> captured = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "playerColor" -> playerColor = readString(reader);
+                    case "from" -> from = readString(reader);
+                    case "to" -> to = readString(reader);
+                    case "captured" -> captured = readFlatObject(reader);
+                    default -> reader.skipValue();
                 }
-                map.put(id, g);
             }
-        } catch (InvalidCommandException e) {
-            throw new RuntimeException(e);
+            reader.endObject();
+            body.addMove(playerColor, from, to, captured != null ? captured.get("type") : null,
+                    captured != null ? captured.get("color") : null);
         }
-        return map;
+        reader.endArray();
     }
 
-    public static void writeUsers(Path path, List<User> users) throws IOException {
-        JSONArray arr = new JSONArray();
-
-        for (User user : users) {
-            JSONObject obj = new JSONObject();
-            obj.put("email", user.getEmail());
-            obj.put("password", user.getPassword());
-            obj.put("points", user.getPoints());
-
-            JSONArray gameIds = new JSONArray();
-            gameIds.addAll(user.getGameIds());
-            obj.put("games", gameIds);
-            arr.add(obj);
+    private static ScoreLedger readScore(JsonStreamReader reader) throws IOException {
+        if (reader.peek() != JsonStreamReader.Token.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+        ScoreLedger ledger = new ScoreLedger();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "WHITE" -> ledger.setPoints(Colors.WHITE, (int) readLong(reader, 0));
+                case "BLACK" -> ledger.setPoints(Colors.BLACK, (int) readLong(reader, 0));
+                default -> reader.skipValue();
+            }
         }
+        reader.endObject();
+        return ledger;
+    }
 
-        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
-            writer.write(arr.toJSONString());
+    // Scalar fields of the next object, or null when the next value is not an object
+    private static Map<String, String> readFlatObject(JsonStreamReader reader) throws IOException {
+        if (reader.peek() != JsonStreamReader.Token.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+        Map<String, String> fields = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            fields.put(name, readString(reader));
         }
+        reader.endObject();
+        return fields;
     }
 
-    public static void writeGames(Path path, Map<Integer, Game> games) throws IOException {
-        JSONArray arr = new JSONArray();
-
-        for (Game game : games.values()) {
-            JSONObject obj = new JSONObject();
-            obj.put("id", game.getId());
-
-            JSONArray playersArr = new JSONArray();
-            List<Player> players = game.getPlayers();
-            for (Player player : players) {
-                JSONObject pObj = new JSONObject();
-                String email = player.isComputer() ? "computer" : player.getName();
-                pObj.put("email", email);
-                pObj.put("color", colorToString(player.getColor()));
-                playersArr.add(pObj);
+    private static String readString(JsonStreamReader reader) throws IOException {
+        JsonStreamReader.Token token = reader.peek();
+        if (token == JsonStreamReader.Token.BEGIN_OBJECT || token == JsonStreamReader.Token.BEGIN_ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    // Numbers may also be stored as strings; anything unreadable gives the fallback
+    private static long readLong(JsonStreamReader reader, long fallback) throws IOException {
+        boolean number = reader.peek() == JsonStreamReader.Token.NUMBER;
+        String text = readString(reader);
+        if (text == null) {
+            return fallback;
+        }
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            try {
+                return number ? (long) Double.parseDouble(text) : fallback;
+            } catch (NumberFormatException notANumber) {
+                return fallback;
             }
-            obj.put("players", playersArr);
-
-            Colors currentColor = Colors.WHITE;
-            if (!players.isEmpty()) {
-                int currentIndex = game.getCurrentPlayerIndex();
-                if (currentIndex >= 0 && currentIndex < players.size()) {
-                    currentColor = players.get(currentIndex).getColor();
-                } else {
-                    currentColor = players.get(0).getColor();
+        }
+    }
+
+    public static void writeUsers(Path path, List<User> users) throws IOException {
+        writeDocument(path, writer -> {
+            writer.beginArray();
+            for (User user : users) {
+                writer.beginObject();
+                writer.name("email").value(user.getEmail());
+                writer.name("password").value(user.getPassword());
+                writer.name("points").value(user.getPoints());
+                writer.name("games").beginArray();
+                for (Integer gameId : user.getGameIds()) {
+                    writer.value(gameId);
                 }
+                writer.endArray();
+                writer.endObject();
             }
-            obj.put("currentPlayerColor", colorToString(currentColor));
+            writer.endArray();
+        });
+    }
 
-            JSONArray boardArr = new JSONArray();
+    // Each game goes straight to the file; games that were never opened are written from their packed body
+    public static void writeGames(Path path, Map<Integer, Game> games) throws IOException {
+        writeDocument(path, writer -> {
+            writer.beginArray();
+            for (Game game : games.values()) {
+                writeGame(writer, game);
+            }
+            writer.endArray();
+        });
+    }
+
+    // The board and moves packed as if read from a store. The body never changes, so one can back any number
+    // of games through setBodyLoader; each game unpacks its own copy when first used.
+    public static GameBodyLoader packBody(Board board, List<Move> moves) {
+        PackedGameBody.Builder body = new PackedGameBody.Builder();
+        body.startBoard();
+        for (ChessPair<Position, Piece> pair : board.getPieces()) {
+            body.addPiece(String.valueOf(pair.getValue().type()), colorToString(pair.getValue().getColor()),
+                    pair.getKey().toString());
+        }
+        body.startMoves();
+        for (Move move : moves) {
+            Piece captured = move.getCapturedPiece();
+            body.addMove(colorToString(move.getPlayerColor()), move.getFrom().toString(), move.getTo().toString(),
+                    captured != null ? String.valueOf(captured.type()) : null,
+                    captured != null ? colorToString(captured.getColor()) : null);
+        }
+        return body.build();
+    }
+
+    private static void writeGame(JsonStreamWriter writer, Game game) throws IOException {
+        writer.beginObject();
+        writer.name("id").value(game.getId());
+
+        List<Player> players = game.getPlayers();
+        writer.name("players").beginArray();
+        for (Player player : players) {
+            String email = player.isComputer() ? "computer" : player.getName();
+            writer.beginObject();
+            writer.name("email").value(email);
+            writer.name("color").value(colorToString(player.getColor()));
+            writer.endObject();
+        }
+        writer.endArray();
+
+        Colors currentColor = Colors.WHITE;
+        if (!players.isEmpty()) {
+            int currentIndex = game.getCurrentPlayerIndex();
+            if (currentIndex >= 0 && currentIndex < players.size()) {
+                currentColor = players.get(currentIndex).getColor();
+            } else {
+                currentColor = players.get(0).getColor();
+            }
+        }
+        writer.name("currentPlayerColor").value(colorToString(currentColor));
+        writer.name("difficulty").value(game.getDifficulty().name());
+        writer.name("evaluator").value(game.getEvaluatorType().name());
+
+        if (game.getBodyLoader() instanceof PackedGameBody packed) {
+            packed.write(writer);
+        } else {
+            writer.name("board").beginArray();
             for (ChessPair<Position, Piece> pair : game.getBoard().getPieces()) {
-                JSONObject pieceObj = new JSONObject();
-                pieceObj.put("type", String.valueOf(pair.getValue().type()));
-                pieceObj.put("color", colorToString(pair.getValue().getColor()));
-                pieceObj.put("position", pair.getKey().toString());
-                boardArr.add(pieceObj);
+                writer.beginObject();
+                writer.name("type").value(String.valueOf(pair.getValue().type()));
+                writer.name("color").value(colorToString(pair.getValue().getColor()));
+                writer.name("position").value(pair.getKey().toString());
+                writer.endObject();
             }
-            obj.put("board", boardArr);
+            writer.endArray();
 
-            JSONArray movesArr = new JSONArray();
+            writer.name("moves").beginArray();
             for (Move move : game.getMoves()) {
-                JSONObject moveObj = new JSONObject();
-                moveObj.put("playerColor", colorToString(move.getPlayerColor()));
-                moveObj.put("from", move.getFrom().toString());
-                moveObj.put("to", move.getTo().toString());
+                writer.beginObject();
+                writer.name("playerColor").value(colorToString(move.getPlayerColor()));
+                writer.name("from").value(move.getFrom().toString());
+                writer.name("to").value(move.getTo().toString());
                 if (move.getCapturedPiece() != null) {
-                    JSONObject capturedObj = new JSONObject();
-                    capturedObj.put("type", String.valueOf(move.getCapturedPiece().type()));
-                    capturedObj.put("color", colorToString(move.getCapturedPiece().getColor()));
-                    moveObj.put("captured", capturedObj);
+                    writer.name("captured").beginObject();
+                    writer.name("type").value(String.valueOf(move.getCapturedPiece().type()));
+                    writer.name("color").value(colorToString(move.getCapturedPiece().getColor()));
+                    writer.endObject();
                 }
-                movesArr.add(moveObj);
+                writer.endObject();
             }
-            obj.put("moves", movesArr);
-
-            arr.add(obj);
+            writer.endArray();
         }
 
-        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
-            writer.write(arr.toJSONString());
-        }
+        writer.name("score").beginObject();
+        writer.name("WHITE").value(game.getScoreLedger().getPoints(Colors.WHITE));
+        writer.name("BLACK").value(game.getScoreLedger().getPoints(Colors.BLACK));
+        writer.endObject();
+        writer.endObject();
     }
 
-    private static Piece buildCapturedPiece(JSONObject capturedObj, Position fallbackPosition) throws InvalidCommandException {
-        if (capturedObj == null) {
-            return null;
+    private interface DocumentContent {
+        void write(JsonStreamWriter writer) throws IOException;
+    }
+
+    // Written next to the target and moved over it once complete, so a failure part way keeps the old file
+    private static void writeDocument(Path path, DocumentContent content) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (JsonStreamWriter writer = new JsonStreamWriter(Files.newBufferedWriter(temp, StandardCharsets.UTF_8))) {
+            content.write(writer);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
         }
-        String type = asString(capturedObj.get("type"));
-        String colorStr = asString(capturedObj.get("color"));
-        if (type == null || type.isEmpty() || colorStr == null) {
-            return null;
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
         }
-
-        Colors color = "BLACK".equalsIgnoreCase(colorStr) ? Colors.BLACK : Colors.WHITE;
-        Position position = fallbackPosition != null
-                ? new Position(fallbackPosition.getX(), fallbackPosition.getY())
-                : new Position("A1");
-
-        char pieceType = type.charAt(0);
-        String pieceTypeName = switch (pieceType) {
-            case 'K' -> "KING";
-            case 'Q' -> "QUEEN";
-            case 'R' -> "ROOK";
-            case 'B' -> "BISHOP";
-            case 'N' -> "KNIGHT";
-            case 'P' -> "PAWN";
-            default -> null;
-        };
-
-        return pieceTypeName != null ? PieceFactory.createPiece(pieceTypeName, color, position) : null;
     }
 
     private static JSONArray asArray(Object o) {
@@ -318,15 +438,6 @@ public final class JsonReaderUtil {
         }
     }
 
-    private static long asLong(Object o) {
-        if (o instanceof Number) return ((Number) o).longValue();
-        try {
-            return o != null ? Long.parseLong(String.valueOf(o)) : (long) -1;
-        } catch (NumberFormatException e) {
-            return -1;
-        }
-    }
-
     private static String colorToString(Colors color) {
         return color == Colors.BLACK ? "BLACK" : "WHITE";
     }
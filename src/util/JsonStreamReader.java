@@ -0,0 +1,332 @@
+package util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+// Pull parser for JSON: the caller walks the document token by token with beginObject, nextName,
+// nextString and so on, so only the current token is ever held in memory. Numbers and booleans are
+// returned as their text; peek() tells them apart from strings.
+public final class JsonStreamReader implements Closeable {
+    public enum Token { BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT }
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limit;
+    private long consumed;
+
+    private int[] stack = new int[32];
+    private int depth;
+    private Token peeked;
+    private final StringBuilder text = new StringBuilder();
+
+    public JsonStreamReader(Reader in) {
+        this.in = in;
+        stack[depth++] = EMPTY_DOCUMENT;
+    }
+
+    public Token peek() throws IOException {
+        if (peeked == null) {
+            peeked = advance();
+        }
+        return peeked;
+    }
+
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return text.toString();
+    }
+
+    // The text of a string, number or boolean, or null for a JSON null
+    public String nextString() throws IOException {
+        Token token = peek();
+        if (token == Token.NULL) {
+            peeked = null;
+            return null;
+        }
+        if (token != Token.STRING && token != Token.NUMBER && token != Token.BOOLEAN) {
+            throw syntaxError("Expected a value but was " + token);
+        }
+        peeked = null;
+        return text.toString();
+    }
+
+    // Skips the next value, including everything nested in it
+    public void skipValue() throws IOException {
+        int nesting = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT, BEGIN_ARRAY -> nesting++;
+                case END_OBJECT, END_ARRAY -> {
+                    nesting--;
+                    depth--;
+                }
+                case END_DOCUMENT -> throw syntaxError("Unexpected end of input");
+                default -> {
+                }
+            }
+            peeked = null;
+        } while (nesting > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void expect(Token token) throws IOException {
+        if (peek() != token) {
+            throw syntaxError("Expected " + token + " but was " + peeked);
+        }
+        peeked = null;
+    }
+
+    private Token advance() throws IOException {
+        int context = stack[depth - 1];
+        int c = nextNonBlank();
+        switch (context) {
+            case EMPTY_ARRAY, NONEMPTY_ARRAY -> {
+                if (c == ']') {
+                    return Token.END_ARRAY;
+                }
+                if (context == NONEMPTY_ARRAY) {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or ']'");
+                    }
+                    c = nextNonBlank();
+                }
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                return value(c);
+            }
+            case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+                if (c == '}') {
+                    return Token.END_OBJECT;
+                }
+                if (context == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or '}'");
+                    }
+                    c = nextNonBlank();
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected a name");
+                }
+                readString();
+                if (nextNonBlank() != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                stack[depth - 1] = DANGLING_NAME;
+                return Token.NAME;
+            }
+            case DANGLING_NAME -> {
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                return value(c);
+            }
+            case EMPTY_DOCUMENT -> {
+                if (c == -1) {
+                    return Token.END_DOCUMENT;
+                }
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                return value(c);
+            }
+            default -> {
+                if (c != -1) {
+                    throw syntaxError("Unexpected data after the document");
+                }
+                return Token.END_DOCUMENT;
+            }
+        }
+    }
+
+    private Token value(int c) throws IOException {
+        switch (c) {
+            case '{' -> {
+                push(EMPTY_OBJECT);
+                return Token.BEGIN_OBJECT;
+            }
+            case '[' -> {
+                push(EMPTY_ARRAY);
+                return Token.BEGIN_ARRAY;
+            }
+            case '"' -> {
+                readString();
+                return Token.STRING;
+            }
+            case 't' -> {
+                readLiteral("true");
+                return Token.BOOLEAN;
+            }
+            case 'f' -> {
+                readLiteral("false");
+                return Token.BOOLEAN;
+            }
+            case 'n' -> {
+                readLiteral("null");
+                return Token.NULL;
+            }
+            case -1 -> throw syntaxError("Unexpected end of input");
+            default -> {
+                if (c != '-' && (c < '0' || c > '9')) {
+                    throw syntaxError("Unexpected character '" + (char) c + "'");
+                }
+                readNumber(c);
+                return Token.NUMBER;
+            }
+        }
+    }
+
+    private void push(int context) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = context;
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        for (int i = 1; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw syntaxError("Expected " + literal);
+            }
+        }
+        text.setLength(0);
+        text.append(literal);
+    }
+
+    // Number syntax is left to whoever parses the text
+    private void readNumber(int first) throws IOException {
+        text.setLength(0);
+        text.append((char) first);
+        while (pos < limit || fill()) {
+            char c = buffer[pos];
+            if ((c < '0' || c > '9') && c != '.' && c != 'e' && c != 'E' && c != '+' && c != '-') {
+                break;
+            }
+            text.append(c);
+            pos++;
+        }
+    }
+
+    // Reads up to and including the closing quote; runs without escapes are copied straight from the buffer
+    private void readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos];
+                if (c == '"') {
+                    text.append(buffer, start, pos - start);
+                    pos++;
+                    return;
+                }
+                if (c == '\\') {
+                    text.append(buffer, start, pos - start);
+                    pos++;
+                    text.append(readEscape());
+                    start = pos;
+                    continue;
+                }
+                pos++;
+            }
+            text.append(buffer, start, pos - start);
+            if (!fill()) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"', '\\', '/' -> {
+                return (char) c;
+            }
+            case 'b' -> {
+                return '\b';
+            }
+            case 'f' -> {
+                return '\f';
+            }
+            case 'n' -> {
+                return '\n';
+            }
+            case 'r' -> {
+                return '\r';
+            }
+            case 't' -> {
+                return '\t';
+            }
+            case 'u' -> {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Invalid unicode escape");
+                    }
+                    value = value * 16 + digit;
+                }
+                return (char) value;
+            }
+            default -> throw syntaxError("Invalid escape");
+        }
+    }
+
+    private int nextNonBlank() throws IOException {
+        while (true) {
+            int c = read();
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        consumed += limit;
+        pos = 0;
+        limit = Math.max(in.read(buffer, 0, buffer.length), 0);
+        return limit > 0;
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at character " + (consumed + pos));
+    }
+}
@@ -0,0 +1,152 @@
+package util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+// Writes JSON straight to a writer as the caller walks its data, so no document is built in memory.
+// Commas are placed from the nesting kept here; strings are escaped the way json-simple escapes them.
+public final class JsonStreamWriter implements Closeable {
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final Writer out;
+    // One flag per open array or object: whether the next element needs a comma before it
+    private boolean[] needsComma = new boolean[32];
+    private int depth;
+    private boolean afterName;
+
+    public JsonStreamWriter(Writer out) {
+        this.out = out;
+    }
+
+    public JsonStreamWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    public JsonStreamWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    public JsonStreamWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    public JsonStreamWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    public JsonStreamWriter name(String name) throws IOException {
+        separate();
+        string(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonStreamWriter value(String value) throws IOException {
+        separate();
+        if (value == null) {
+            out.write("null");
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    public JsonStreamWriter value(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    public JsonStreamWriter value(double value) throws IOException {
+        separate();
+        out.write(Double.toString(value));
+        return this;
+    }
+
+    public JsonStreamWriter value(boolean value) throws IOException {
+        separate();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private JsonStreamWriter open(char bracket) throws IOException {
+        separate();
+        out.write(bracket);
+        if (depth == needsComma.length) {
+            needsComma = Arrays.copyOf(needsComma, depth * 2);
+        }
+        needsComma[depth++] = false;
+        return this;
+    }
+
+    private JsonStreamWriter close(char bracket) throws IOException {
+        if (depth == 0 || afterName) {
+            throw new IllegalStateException("Nothing to close with " + bracket);
+        }
+        depth--;
+        out.write(bracket);
+        return this;
+    }
+
+    // A value right after its name needs no comma; anything else inside a container does after the first
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (needsComma[depth - 1]) {
+                out.write(',');
+            }
+            needsComma[depth - 1] = true;
+        }
+    }
+
+    private void string(String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escaped = switch (c) {
+                case '"' -> "\\\"";
+                case '\\' -> "\\\\";
+                case '/' -> "\\/";
+                case '\b' -> "\\b";
+                case '\f' -> "\\f";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                case '\t' -> "\\t";
+                default -> null;
+            };
+            boolean control = c <= '\u001F' || (c >= '\u007F' && c <= '\u009F') || (c >= '\u2000' && c <= '\u20FF');
+            if (escaped == null && !control) {
+                continue;
+            }
+            out.write(value, start, i - start);
+            if (escaped != null) {
+                out.write(escaped);
+            } else {
+                out.write("\\u");
+                out.write(HEX[c >>> 12]);
+                out.write(HEX[(c >>> 8) & 15]);
+                out.write(HEX[(c >>> 4) & 15]);
+                out.write(HEX[c & 15]);
+            }
+            start = i + 1;
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+}
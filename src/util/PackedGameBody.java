@@ -0,0 +1,299 @@
+package util;
+
+import exceptions.InvalidCommandException;
+import factory.PieceFactory;
+import model.Board;
+import model.ChessPair;
+import model.Colors;
+import model.Game;
+import model.GameBodyLoader;
+import model.Move;
+import model.Position;
+import pieces.Pawn;
+import pieces.Piece;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Board and moves of a stored game packed into bytes while the store is streamed in, so an unopened game
+// costs a few hundred bytes instead of its pieces and positions. A piece is its type letter with the
+// colour in the top bit, then its square; a move is a flags byte, from, to, and the captured type letter.
+// A game that is never opened is saved straight from these bytes. A game that cannot be unpacked keeps the
+// fields it was read with instead, so saving writes it back untouched.
+final class PackedGameBody implements GameBodyLoader {
+    private static final int BLACK = 0x80;
+    private static final int MOVE_BLACK = 1;
+    private static final int MOVE_CAPTURE = 2;
+    private static final int MOVE_CAPTURE_BLACK = 4;
+
+    private final byte[] board;
+    private final byte[] moves;
+    private final String error;
+    private final List<String[]> rawBoard;
+    private final List<String[]> rawMoves;
+
+    private PackedGameBody(byte[] board, byte[] moves, String error, List<String[]> rawBoard, List<String[]> rawMoves) {
+        this.board = board;
+        this.moves = moves;
+        this.error = error;
+        this.rawBoard = rawBoard;
+        this.rawMoves = rawMoves;
+    }
+
+    // A bad square fails only its own game, when that game is opened, rather than the whole store as the
+    // DOM reader did; one corrupt record should not hide every other game
+    @Override
+    public void load(Game game) throws InvalidCommandException {
+        if (error != null) {
+            throw new InvalidCommandException(error);
+        }
+        if (board != null) {
+            game.setBoard(unpackBoard());
+        }
+        if (moves != null) {
+            game.setMoves(unpackMoves());
+        }
+    }
+
+    // Saves the board and moves as the store lays them out, without unpacking them into pieces first
+    void write(JsonStreamWriter writer) throws IOException {
+        if (error != null) {
+            writeRaw(writer);
+            return;
+        }
+        writer.name("board").beginArray();
+        for (int i = 0; board != null && i < board.length; i += 2) {
+            writer.beginObject();
+            writer.name("type").value(String.valueOf((char) (board[i] & 0x7f)));
+            writer.name("color").value((board[i] & BLACK) != 0 ? "BLACK" : "WHITE");
+            writer.name("position").value(squareName(board[i + 1]));
+            writer.endObject();
+        }
+        writer.endArray();
+
+        writer.name("moves").beginArray();
+        int i = 0;
+        while (moves != null && i < moves.length) {
+            int flags = moves[i];
+            writer.beginObject();
+            writer.name("playerColor").value((flags & MOVE_BLACK) != 0 ? "BLACK" : "WHITE");
+            writer.name("from").value(squareName(moves[i + 1]));
+            writer.name("to").value(squareName(moves[i + 2]));
+            i += 3;
+            if ((flags & MOVE_CAPTURE) != 0) {
+                writer.name("captured").beginObject();
+                writer.name("type").value(String.valueOf((char) moves[i++]));
+                writer.name("color").value((flags & MOVE_CAPTURE_BLACK) != 0 ? "BLACK" : "WHITE");
+                writer.endObject();
+            }
+            writer.endObject();
+        }
+        writer.endArray();
+    }
+
+    private void writeRaw(JsonStreamWriter writer) throws IOException {
+        writer.name("board").beginArray();
+        for (String[] piece : rawBoard) {
+            writer.beginObject();
+            writer.name("type").value(piece[0]);
+            writer.name("color").value(piece[1]);
+            writer.name("position").value(piece[2]);
+            writer.endObject();
+        }
+        writer.endArray();
+
+        writer.name("moves").beginArray();
+        for (String[] move : rawMoves) {
+            writer.beginObject();
+            writer.name("playerColor").value(move[0]);
+            writer.name("from").value(move[1]);
+            writer.name("to").value(move[2]);
+            if (move[3] != null || move[4] != null) {
+                writer.name("captured").beginObject();
+                writer.name("type").value(move[3]);
+                writer.name("color").value(move[4]);
+                writer.endObject();
+            }
+            writer.endObject();
+        }
+        writer.endArray();
+    }
+
+    private Board unpackBoard() {
+        Board board = new Board();
+        for (int i = 0; i < this.board.length; i += 2) {
+            Colors color = (this.board[i] & BLACK) != 0 ? Colors.BLACK : Colors.WHITE;
+            Position position = position(this.board[i + 1]);
+            Piece piece = PieceFactory.createPiece(typeName((char) (this.board[i] & 0x7f)), color, position);
+            if (piece instanceof Pawn pawn) {
+                boolean onStart = (color == Colors.WHITE && position.getY() == 2)
+                        || (color == Colors.BLACK && position.getY() == 7);
+                pawn.setFirstMove(onStart);
+            }
+            board.getPieces().add(new ChessPair<>(position, piece));
+        }
+        return board;
+    }
+
+    private List<Move> unpackMoves() {
+        List<Move> result = new ArrayList<>();
+        int i = 0;
+        while (i < moves.length) {
+            int flags = moves[i];
+            Colors color = (flags & MOVE_BLACK) != 0 ? Colors.BLACK : Colors.WHITE;
+            byte to = moves[i + 2];
+            Move move = new Move(color, position(moves[i + 1]), position(to));
+            i += 3;
+            if ((flags & MOVE_CAPTURE) != 0) {
+                Colors capturedColor = (flags & MOVE_CAPTURE_BLACK) != 0 ? Colors.BLACK : Colors.WHITE;
+                move.setCapturedPiece(PieceFactory.createPiece(typeName((char) moves[i++]), capturedColor, position(to)));
+            }
+            result.add(move);
+        }
+        return result;
+    }
+
+    // Type letters the store understands; anything else is dropped, as before
+    static String typeName(char type) {
+        return switch (type) {
+            case 'K' -> "KING";
+            case 'Q' -> "QUEEN";
+            case 'R' -> "ROOK";
+            case 'B' -> "BISHOP";
+            case 'N' -> "KNIGHT";
+            case 'P' -> "PAWN";
+            default -> null;
+        };
+    }
+
+    // Same rules as new Position(String), without building one: 0-63, or -1 when invalid
+    static int square(String position) {
+        if (position == null) {
+            return -1;
+        }
+        String trimmed = position.trim().toUpperCase();
+        if (trimmed.length() != 2) {
+            return -1;
+        }
+        char file = trimmed.charAt(0);
+        char rank = trimmed.charAt(1);
+        if (file < 'A' || file > 'H' || rank < '1' || rank > '8') {
+            return -1;
+        }
+        return (rank - '1') * 8 + (file - 'A');
+    }
+
+    private static String squareName(byte square) {
+        return "" + (char) ('A' + (square & 7)) + ((square >>> 3) + 1);
+    }
+
+    private static Position position(byte square) {
+        try {
+            return new Position((char) ('A' + (square & 7)), (square >>> 3) + 1);
+        } catch (InvalidCommandException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Collects one game at a time while the store is read; reset() starts the next game
+    static final class Builder {
+        private byte[] board = new byte[64];
+        private byte[] moves = new byte[512];
+        private int boardSize;
+        private int moveSize;
+        private int moveCount;
+        private boolean hasBoard;
+        private boolean hasMoves;
+        private String error;
+        // Every entry as read, kept in case the game turns out not to unpack
+        private final List<String[]> rawBoard = new ArrayList<>();
+        private final List<String[]> rawMoves = new ArrayList<>();
+
+        void reset() {
+            boardSize = 0;
+            moveSize = 0;
+            moveCount = 0;
+            hasBoard = false;
+            hasMoves = false;
+            error = null;
+            rawBoard.clear();
+            rawMoves.clear();
+        }
+
+        void startBoard() {
+            hasBoard = true;
+            boardSize = 0;
+            rawBoard.clear();
+        }
+
+        void startMoves() {
+            hasMoves = true;
+            moveSize = 0;
+            moveCount = 0;
+            rawMoves.clear();
+        }
+
+        void addPiece(String type, String color, String position) {
+            rawBoard.add(new String[] {type, color, position});
+            int square = square(position);
+            if (color == null || square < 0) {
+                fail("Invalid position format");
+                return;
+            }
+            if (type == null || type.isEmpty() || typeName(type.charAt(0)) == null) {
+                return;
+            }
+            if (boardSize + 2 > board.length) {
+                board = Arrays.copyOf(board, board.length * 2);
+            }
+            board[boardSize++] = (byte) (type.charAt(0) | (color.equals("WHITE") ? 0 : BLACK));
+            board[boardSize++] = (byte) square;
+        }
+
+        void addMove(String playerColor, String from, String to, String capturedType, String capturedColor) {
+            moveCount++;
+            rawMoves.add(new String[] {playerColor, from, to, capturedType, capturedColor});
+            int fromSquare = square(from);
+            int toSquare = square(to);
+            if (fromSquare < 0 || toSquare < 0) {
+                fail("Invalid position format");
+                return;
+            }
+            int flags = "BLACK".equalsIgnoreCase(playerColor) ? MOVE_BLACK : 0;
+            boolean captured = capturedType != null && !capturedType.isEmpty() && capturedColor != null
+                    && typeName(capturedType.charAt(0)) != null;
+            if (captured) {
+                flags |= MOVE_CAPTURE | ("BLACK".equalsIgnoreCase(capturedColor) ? MOVE_CAPTURE_BLACK : 0);
+            }
+            if (moveSize + 4 > moves.length) {
+                moves = Arrays.copyOf(moves, moves.length * 2);
+            }
+            moves[moveSize++] = (byte) flags;
+            moves[moveSize++] = (byte) fromSquare;
+            moves[moveSize++] = (byte) toSquare;
+            if (captured) {
+                moves[moveSize++] = (byte) capturedType.charAt(0);
+            }
+        }
+
+        int getMoveCount() {
+            return moveCount;
+        }
+
+        PackedGameBody build() {
+            if (error != null) {
+                return new PackedGameBody(null, null, error, new ArrayList<>(rawBoard), new ArrayList<>(rawMoves));
+            }
+            return new PackedGameBody(hasBoard ? Arrays.copyOf(board, boardSize) : null,
+                    hasMoves ? Arrays.copyOf(moves, moveSize) : null, null, null, null);
+        }
+
+        private void fail(String message) {
+            if (error == null) {
+                error = message;
+            }
+        }
+    }
+}